@@ -0,0 +1,71 @@
+package io.github.flameware.common;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The executors of asynchronous commands.
+ * <p>
+ * FlameWare targets Java 11, so virtual threads are looked up at runtime and are only available on Java 21 or newer.
+ * @author FlameyosFlow
+ */
+public final class AsyncExecutors {
+    private static final MethodHandle VIRTUAL_EXECUTOR;
+
+    static {
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            handle = null;
+        }
+        VIRTUAL_EXECUTOR = handle;
+    }
+
+    private AsyncExecutors() {
+    }
+
+    /**
+     * Checks whether the runtime has virtual threads.
+     * @return true on Java 21 or newer
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * Creates an executor starting a virtual thread per command.
+     * @return the executor, or null if the runtime has no virtual threads
+     */
+    public static @Nullable ExecutorService newVirtualExecutor() {
+        if (VIRTUAL_EXECUTOR == null) return null;
+        try {
+            return (ExecutorService) VIRTUAL_EXECUTOR.invokeExact();
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Could not create the virtual thread executor", throwable);
+        }
+    }
+
+    /**
+     * Creates a pool of daemon threads which grows with the commands blocking at once and shrinks once they are idle,
+     * so blocking commands never starve the common pool of the server.
+     * @param name the name of the threads
+     * @return the executor
+     */
+    public static @NotNull ExecutorService newCachedExecutor(@NotNull String name) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, name + " #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -3,7 +3,8 @@ package io.github.flameware.common;
 import org.jetbrains.annotations.NotNull;
 
 /**
- * Execute every command {@link CommandExecutionType#SYNC synchronously} or {@link CommandExecutionType#ASYNC asynchronously}, usually selectable via the command manager.
+ * Execute every command {@link CommandExecutionType#SYNC synchronously}, {@link CommandExecutionType#ASYNC asynchronously}
+ * or on {@link CommandExecutionType#VIRTUAL virtual threads}, usually selectable via the command manager.
  * <p>
  * The default execution is {@link CommandExecutionType#SYNC synchronous}, so no need to explicitly set it.
  *
@@ -19,9 +20,18 @@ public enum CommandExecutionType {
     SYNC,
     /**
      * The asynchronous execution, more things are done at once but less safe than {@link CommandExecutionType#SYNC}.
+     * <p>
+     * Commands run on a pool owned by the command manager, unless {@link io.github.flameware.common.base.manager.CommandManager#setAsyncExecutor(java.util.concurrent.Executor) another executor} is set.
      * @see CommandExecutionType#SYNC
      */
-    ASYNC;
+    ASYNC,
+    /**
+     * The asynchronous execution on a virtual thread per command, for commands which block on databases or files.
+     * <p>
+     * This needs Java 21 or newer, older runtimes fall back to {@link CommandExecutionType#ASYNC} with a warning.
+     * @see AsyncExecutors#isVirtualThreadsSupported()
+     */
+    VIRTUAL;
 
     public static CommandExecutionType getDefault() {
         return SYNC;
@@ -0,0 +1,30 @@
+package io.github.flameware.common;
+
+/**
+ * How command methods are invoked, selectable per command manager before registering commands.
+ * <p>
+ * The default backend is {@link ExecutorBackend#METHOD_HANDLE}, so no need to explicitly set it.
+ *
+ * @author FlameyosFlow
+ */
+public enum ExecutorBackend {
+    /**
+     * Invokes every command through a cached method handle adapted to a single shape.
+     * <p>
+     * This is the default backend, you can explicitly set it, but you don't need to.
+     * @see ExecutorBackend#GENERATED
+     */
+    METHOD_HANDLE,
+    /**
+     * Generates a small class per command method at registration which calls the method directly,
+     * hot commands cost about as much as a normal virtual call.
+     * <p>
+     * Methods which cannot be linked directly fall back to {@link ExecutorBackend#METHOD_HANDLE}.
+     * @see ExecutorBackend#METHOD_HANDLE
+     */
+    GENERATED;
+
+    public static ExecutorBackend getDefault() {
+        return METHOD_HANDLE;
+    }
+}
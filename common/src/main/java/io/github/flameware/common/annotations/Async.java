@@ -9,6 +9,8 @@ import java.lang.annotation.Target;
  * Asynchronously run a single command every time it is executed.
  * <p>
  * If you are looking to run every command asynchronously, look into CommandExecutionType for more readability.
+ * <p>
+ * Exceptions thrown by the command are logged by the command manager.
  * @since 1.0.0
  * @author FlameyosFlow
  * @see io.github.flameware.common.CommandExecutionType CommandExecutionType
@@ -16,4 +18,12 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface Async {
+    /**
+     * The name of the executor to run the command on, registered with
+     * {@link io.github.flameware.common.base.manager.CommandManager#registerExecutor(String, java.util.concurrent.Executor)}.
+     * <p>
+     * Empty runs it on the async executor of the command manager.
+     * @return the name of the executor
+     */
+    String value() default "";
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package io.github.flameware.common.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits how many invocations of an {@link Async @Async} command run at once, the others wait in a bounded queue
+ * and are rejected with {@link io.github.flameware.common.base.manager.Message#BULKHEAD_FULL} once it is full.
+ * <p>
+ * Commands with the same group share their limit, the first command registered in the group sets it,
+ * unless the group was registered with {@link io.github.flameware.common.base.manager.CommandManager#registerBulkhead(String, io.github.flameware.common.base.execution.Bulkhead)}.
+ * @author FlameyosFlow
+ * @see io.github.flameware.common.base.execution.Bulkhead
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface Bulkhead {
+    /**
+     * How many invocations may run at once.
+     * @return the limit
+     */
+    int maxConcurrent();
+
+    /**
+     * How many invocations may wait for the others to finish.
+     * @return the size of the queue
+     */
+    int maxQueued() default 0;
+
+    /**
+     * The group sharing the limit, empty for a limit of its own.
+     * @return the name of the group
+     */
+    String group() default "";
+}
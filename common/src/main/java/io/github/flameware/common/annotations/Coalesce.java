@@ -0,0 +1,19 @@
+package io.github.flameware.common.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Shares the result of an {@link Async @Async} command between identical invocations,
+ * if an actor runs the command again with the same arguments while it is still running, the new call waits for the running one.
+ * <p>
+ * Made for lookups which players tend to spam, such as {@code /balance} or {@code /stats}.
+ * @author FlameyosFlow
+ * @see io.github.flameware.common.base.execution.InFlightInvocations
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface Coalesce {
+}
@@ -11,6 +11,9 @@ import java.lang.annotation.Target;
  * There can be multiple subcommands, of course, each with its own name, optional usage, description, aliases and permission.
  * <p>
  * Note that the name of the subcommand must be unique and not empty or have the same name as the parent command or another subcommand.
+ * <p>
+ * Subcommands can be nested by separating the literals with spaces, such as {@code @Subcommand(name = "kit give")},
+ * names and aliases are case-insensitive.
  * @author FlameyosFlow
  */
 @Retention(RetentionPolicy.RUNTIME)
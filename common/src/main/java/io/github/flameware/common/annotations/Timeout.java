@@ -0,0 +1,21 @@
+package io.github.flameware.common.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long a command returning a {@link java.util.concurrent.CompletionStage CompletionStage} may take to complete it.
+ * <p>
+ * Once over, the stage is cancelled and the actor is told that the command timed out.
+ * @author FlameyosFlow
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface Timeout {
+    long time();
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+}
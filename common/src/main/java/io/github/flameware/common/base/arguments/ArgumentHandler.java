@@ -1,13 +1,14 @@
 package io.github.flameware.common.base.arguments;
 
+import io.github.flameware.common.base.command.ExecutionPlan;
 import io.github.flameware.common.exceptions.CommandExecutionException;
+import io.github.flameware.common.exceptions.InvalidUsageException;
 import io.github.flameware.common.sender.CommandActor;
-import io.github.flameware.common.utils.ParsingPredicate;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -17,18 +18,61 @@ import java.util.function.Function;
 public interface ArgumentHandler<H extends ArgumentHandler<H>> {
     /**
      * Parse the arguments from a <strong>String[]</strong> into a <strong>Object[]</strong> which consists of possible arguments such as integers, etc.
+     * <p>
+     * The first element is always the resolved sender, followed by the parsed arguments.
      * @param sender The command actor.
-     * @param method The method
+     * @param plan The execution plan of the method
      * @param args The arguments to parse
-     * @param function the predicate to check for while parsing, allowed to be null.
      * @return the parsed arguments from String[] to Object[]
-     * @throws CommandExecutionException when the arguments could not be parsed
+     * @throws CommandExecutionException when the sender is not allowed to run the command
+     * @throws InvalidUsageException when there are too few or too many arguments
+     */
+    default Object[] parseArguments(@NotNull CommandActor<?> sender,
+                                    @NotNull ExecutionPlan plan,
+                                    @NotNull String[] args)
+            throws CommandExecutionException, InvalidUsageException {
+        return parseArguments(sender, plan, CommandLine.of(args), 0);
+    }
+
+    /**
+     * Parse the tokens of the command line starting at the given offset, the tokens before it are the literals of the command.
+     * <p>
+     * The tokens are read straight from the line, and greedy parameters take the rest of the line as it was typed.
+     * @param sender The command actor.
+     * @param plan The execution plan of the method
+     * @param line The tokens to parse
+     * @param offset the index of the first argument of the method
+     * @return the parsed arguments from the command line to Object[]
+     * @throws CommandExecutionException when the sender is not allowed to run the command
+     * @throws InvalidUsageException when there are too few or too many arguments
      */
     Object[] parseArguments(@NotNull CommandActor<?> sender,
-                           @NotNull Method method,
-                           @NotNull String[] args,
-                           @Nullable ParsingPredicate function)
-            throws CommandExecutionException;
+                            @NotNull ExecutionPlan plan,
+                            @NotNull CommandLine line, int offset)
+            throws CommandExecutionException, InvalidUsageException;
+
+    /**
+     * Resolves the parser and the annotations of the parameter once, at registration.
+     * @param parameter the parameter of the command method
+     * @return the compiled parameter
+     */
+    ParameterPlan compile(@NotNull Parameter parameter);
+
+    /**
+     * Resolves the parser of an already resolved parameter, used by the classes generated at compile time.
+     * @param id the id of the argument
+     * @param type the type of the parameter
+     * @param joinDelimiter the {@link io.github.flameware.common.annotations.Join @Join} delimiter, or null if it is not greedy
+     * @param ranged whether the parameter is annotated with {@link io.github.flameware.common.annotations.Range @Range}
+     * @param min the minimum of the range
+     * @param max the maximum of the range
+     * @param def the {@link io.github.flameware.common.annotations.Default @Default} value, or null if it is required
+     * @param suggestions the {@link io.github.flameware.common.annotations.Suggest @Suggest} values
+     * @return the compiled parameter
+     */
+    ParameterPlan compile(@NotNull String id, @NotNull Class<?> type, @Nullable String joinDelimiter,
+                          boolean ranged, double min, double max,
+                          @Nullable String def, @NotNull String[] suggestions);
 
     /**
      * adds a parser to the argument handler if it is not already present in the map.
@@ -63,4 +107,13 @@ public interface ArgumentHandler<H extends ArgumentHandler<H>> {
      * @param <T> the type of the argument
      */
     <T> H addParser(Map<Class<? extends T>, Function<String, ? extends T>> parser);
+
+    /**
+     * adds a parser which reads the argument straight from its slice of the command line, which may override the current one.
+     * @param clazz the class of the argument
+     * @param parser the parser of the argument
+     * @param <T> the type of the argument
+     * @return the argument handler for chaining
+     */
+    <T> H addArgumentParser(Class<? extends T> clazz, ArgumentParser<? extends T> parser);
 }
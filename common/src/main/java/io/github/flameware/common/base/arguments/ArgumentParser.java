@@ -0,0 +1,35 @@
+package io.github.flameware.common.base.arguments;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Function;
+
+/**
+ * Parses an argument straight from its slice of the command line.
+ * <p>
+ * The slice is only a view of the line, call {@link CharSequence#toString()} if you need to keep it.
+ * @param <T> the type of the argument
+ * @author FlameyosFlow
+ */
+@FunctionalInterface
+public interface ArgumentParser<T> {
+    /**
+     * Parses the argument.
+     * @param argument the argument, without its quotes and escapes
+     * @return the parsed argument
+     * @throws IllegalArgumentException when the argument is invalid
+     */
+    T parse(@NotNull CharSequence argument);
+
+    /**
+     * Adapts a parser made for Strings, the slice is copied into a String first.
+     * @param parser the parser
+     * @param <T> the type of the argument
+     * @return the argument parser
+     */
+    @Contract(pure = true)
+    static <T> @NotNull ArgumentParser<T> of(@NotNull Function<String, ? extends T> parser) {
+        return argument -> parser.apply(argument.toString());
+    }
+}
@@ -2,36 +2,34 @@ package io.github.flameware.common.base.arguments;
 
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 
-import io.github.flameware.common.annotations.Suggest;
+import io.github.flameware.common.base.command.ExecutionPlan;
 import io.github.flameware.common.base.manager.CommandManager;
-import io.github.flameware.common.utils.BiIntFunction;
 
+import io.github.flameware.common.utils.SuggestionIndex;
 import io.github.flameware.common.utils.SuggestionPredicate;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Unmodifiable;
-
-import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
-import java.util.ArrayList;
-import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.*;
 
 /**
+ * Holds the named suggestions which {@link io.github.flameware.common.annotations.Suggest @Suggest} refers to with '@'.
+ * <p>
+ * Every set of suggestions is a {@link SuggestionProvider}, fixed suggestions are kept as a {@link SuggestionIndex}
+ * so completing only visits the suggestions starting with what is being typed.
  * @author FlameyosFlow
  */
 @SuppressWarnings("unused")
 public class ArgumentSuggestionRegistry {
-    private final ConcurrentMap<String, List<String>> autoCompletions;
-    private final ConcurrentMap<Class<?>, Function<String, ?>> parsers;
+    private final ConcurrentMap<String, SuggestionProvider> autoCompletions;
+    private volatile int maxSuggestions = 100;
 
     public ArgumentSuggestionRegistry(@NotNull CommandManager manager) {
         autoCompletions = new ConcurrentHashMap<>(25);
-        parsers = manager.getArgumentHandler().getParsers();
     }
 
     private void checkCompletion(@NotNull String completion) {
@@ -43,84 +41,122 @@ public class ArgumentSuggestionRegistry {
     @CanIgnoreReturnValue
     public @NotNull ArgumentSuggestionRegistry registerSuggestion(@NotNull String completion, @NotNull String[] strings) {
         checkCompletion(completion);
-        autoCompletions.put(completion, List.of(strings));
+        autoCompletions.put(completion, SuggestionProvider.of(strings));
         return this;
     }
 
     @CanIgnoreReturnValue
     public @NotNull ArgumentSuggestionRegistry registerSuggestion(@NotNull String completion, @NotNull List<String> strings) {
         checkCompletion(completion);
-        autoCompletions.put(completion, strings);
+        autoCompletions.put(completion, SuggestionProvider.of(strings));
         return this;
     }
 
+    /**
+     * Registers suggestions which are computed on every completion.
+     * <p>
+     * Use {@link SuggestionProvider#cached(Supplier, long, java.util.concurrent.TimeUnit)} if they are costly to compute.
+     * @param completion the name, starting with '@'
+     * @param strings computes the suggestions
+     * @return this
+     */
     @CanIgnoreReturnValue
     public @NotNull ArgumentSuggestionRegistry registerSuggestion(@NotNull String completion, @NotNull Supplier<List<String>> strings) {
         checkCompletion(completion);
-        autoCompletions.put(completion, strings.get());
+        autoCompletions.put(completion, SuggestionProvider.perRequest(strings));
+        return this;
+    }
+
+    @CanIgnoreReturnValue
+    public @NotNull ArgumentSuggestionRegistry registerSuggestion(@NotNull String completion, @NotNull SuggestionProvider provider) {
+        checkCompletion(completion);
+        autoCompletions.put(completion, provider);
         return this;
     }
 
     @CanIgnoreReturnValue
     public @NotNull ArgumentSuggestionRegistry registerSuggestionIfAbsent(@NotNull String completion, @NotNull List<String> strings) {
         checkCompletion(completion);
-        autoCompletions.putIfAbsent(completion, strings);
+        autoCompletions.computeIfAbsent(completion, key -> SuggestionProvider.of(strings));
         return this;
     }
 
     @CanIgnoreReturnValue
     public @NotNull ArgumentSuggestionRegistry registerSuggestionIfAbsent(@NotNull String completion, @NotNull String[] strings) {
         checkCompletion(completion);
-        autoCompletions.putIfAbsent(completion, List.of(strings));
+        autoCompletions.computeIfAbsent(completion, key -> SuggestionProvider.of(strings));
         return this;
     }
 
     @CanIgnoreReturnValue
     public @NotNull ArgumentSuggestionRegistry registerSuggestionIfAbsent(@NotNull String completion, @NotNull Supplier<List<String>> strings) {
         checkCompletion(completion);
-        autoCompletions.putIfAbsent(completion, strings.get());
+        autoCompletions.computeIfAbsent(completion, key -> SuggestionProvider.perRequest(strings));
+        return this;
+    }
+
+    @CanIgnoreReturnValue
+    public @NotNull ArgumentSuggestionRegistry registerSuggestionIfAbsent(@NotNull String completion, @NotNull SuggestionProvider provider) {
+        checkCompletion(completion);
+        autoCompletions.putIfAbsent(completion, provider);
+        return this;
+    }
+
+    /**
+     * Gets the maximum amount of suggestions of a single tab completion.
+     * @return the maximum, 100 by default
+     */
+    public int getMaxSuggestions() {
+        return maxSuggestions;
+    }
+
+    /**
+     * Sets the maximum amount of suggestions of a single tab completion.
+     * @param maxSuggestions the maximum
+     * @return this
+     */
+    @CanIgnoreReturnValue
+    public @NotNull ArgumentSuggestionRegistry setMaxSuggestions(int maxSuggestions) {
+        if (maxSuggestions < 0) throw new IllegalArgumentException("The maximum amount of suggestions cannot be negative");
+        this.maxSuggestions = maxSuggestions;
         return this;
     }
 
     /**
-     * Completes arguments
-     * @param method the method for completion
-     * @param function the int function for completion for certain arguments.
-     * @return the list of completions
+     * Gets the suggestions registered under the name.
+     * @param completion the name, starting with '@'
+     * @return the suggestions, or null if there are none
+     */
+    public @Nullable SuggestionProvider getSuggestions(@NotNull String completion) {
+        return autoCompletions.get(completion);
+    }
+
+    /**
+     * Completes the argument being typed, only the parameter taking it is asked for suggestions.
+     * @param plan the execution plan of the command for completion
+     * @param argument the index of the argument being typed, after the subcommand literals
+     * @param completions the completions, which only keep the suggestions starting with what is being typed
+     * @param function the function suggesting the types known to the platform, returning true if it handled the type
      */
     @ApiStatus.Experimental
-    public final @NotNull @Unmodifiable List<String> complete(@NotNull Method method, SuggestionPredicate function) {
-        List<String> list = new ArrayList<>(1000);
-        int parameterCount = method.getParameterCount();
-        for (int i = 0; i < parameterCount; i++) {
-            Parameter parameter = method.getParameters()[i];
-            Class<?> type = method.getParameterTypes()[i];
-            if (function.test(type, list)) continue;
-            int finalI = i;
-            Optional.ofNullable(parameter.getAnnotation(Suggest.class)).ifPresent(suggestAnnotation -> {
-                if (type == String.class) {
-                    this.autoCompleteStrings(suggestAnnotation, parameter, list);
-                } else {
-                    var parser = parsers.get(type);
-                    if (parser == null)
-                        throw new IllegalArgumentException("Unknown autocompleted type: " + type);
-                    list.add(String.valueOf(parser.apply(suggestAnnotation.value()[finalI])));
-                }
-            });
-        }
-        return list;
+    public final void complete(@NotNull ExecutionPlan plan, int argument,
+                               @NotNull Completions completions, @NotNull SuggestionPredicate function) {
+        ParameterPlan parameter = plan.getParameterAt(argument);
+        if (parameter == null || completions.isFull()) return;
+        if (function.test(parameter.getType(), completions)) return;
+        this.autoCompleteStrings(parameter.getSuggestions(), completions);
     }
 
-    private void autoCompleteStrings(@NotNull Suggest suggestAnnotation, @NotNull Parameter parameter, List<String> list) {
-        String[] autoCompletions = suggestAnnotation.value();
+    private void autoCompleteStrings(@NotNull String[] autoCompletions, @NotNull Completions completions) {
         for (String autoCompletion : autoCompletions) {
             if (autoCompletion.charAt(0) == '@') {
-                List<String> strings = this.autoCompletions.get(autoCompletion);
-                if (strings == null)
+                SuggestionProvider provider = this.autoCompletions.get(autoCompletion);
+                if (provider == null)
                     throw new IllegalArgumentException("Unknown auto-complete type starting with @: " + autoCompletion);
-                list.addAll(strings);
+                if (!provider.complete(completions)) return;
+                continue;
             }
-            list.add(autoCompletion);
+            if (!completions.offer(autoCompletion)) return;
         }
     }
 }
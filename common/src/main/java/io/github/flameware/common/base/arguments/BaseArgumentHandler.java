@@ -1,15 +1,18 @@
 package io.github.flameware.common.base.arguments;
 
 import io.github.flameware.common.annotations.Arg;
+import io.github.flameware.common.annotations.Default;
 import io.github.flameware.common.annotations.Join;
 
 import io.github.flameware.common.annotations.Range;
+import io.github.flameware.common.annotations.Suggest;
+import io.github.flameware.common.base.command.ExecutionPlan;
 import io.github.flameware.common.base.manager.Message;
 import io.github.flameware.common.exceptions.ArgumentParseError;
 import io.github.flameware.common.exceptions.CommandExecutionException;
+import io.github.flameware.common.exceptions.InvalidUsageException;
 import io.github.flameware.common.exceptions.NotInRangeException;
 import io.github.flameware.common.sender.CommandActor;
-import io.github.flameware.common.utils.ParsingPredicate;
 
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -18,9 +21,14 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.Method;
+import java.lang.reflect.Array;
 import java.lang.reflect.Parameter;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
@@ -28,7 +36,7 @@ import java.util.function.Function;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 
 /**
- * The class that parses a String[] into a Object[].
+ * The class that parses the tokens of a command line into a Object[].
  * <p>
  * This class is the default implementation of {@link BaseArgumentHandler}, and it is thread-safe by default due to the usage of ConcurrentMap.
  * <p>
@@ -36,30 +44,47 @@ import com.google.errorprone.annotations.CanIgnoreReturnValue;
  * @author FlameyosFlow
  */
 public class BaseArgumentHandler implements ArgumentHandler<BaseArgumentHandler> {
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
     @Getter(AccessLevel.PACKAGE)
-    private final ConcurrentMap<Class<?>, Function<String, ?>> parsers;
+    private final ConcurrentMap<Class<?>, ArgumentParser<?>> parsers;
+    /**
+     * The parser of every type resolved so far, replaced whenever a parser is added.
+     */
+    private volatile ClassValue<ArgumentParser<?>> resolved = newResolver();
 
     public BaseArgumentHandler() {
         parsers = new ConcurrentHashMap<>(50);
-        parsers.put(String.class, (s) -> s);
-        parsers.put(Boolean.class, Boolean::parseBoolean);
-        parsers.put(Integer.class, Integer::parseInt);
-        parsers.put(Double.class, Double::parseDouble);
-        parsers.put(Long.class, Long::parseLong);
-        parsers.put(Float.class, Float::parseFloat);
+        ArgumentParser<Boolean> booleanParser = BaseArgumentHandler::parseBoolean;
+        IntArgumentParser intParser = (input, start, end) -> Integer.parseInt(input, start, end, 10);
+        LongArgumentParser longParser = (input, start, end) -> Long.parseLong(input, start, end, 10);
+        DoubleArgumentParser doubleParser = BaseArgumentHandler::parseDouble;
+        ArgumentParser<Float> floatParser = argument -> Float.parseFloat(argument.toString());
+
+        parsers.put(String.class, CharSequence::toString);
+        parsers.put(Boolean.class, booleanParser);
+        parsers.put(Integer.class, intParser);
+        parsers.put(Double.class, doubleParser);
+        parsers.put(Long.class, longParser);
+        parsers.put(Float.class, floatParser);
 
-        parsers.put(boolean.class, Boolean::parseBoolean);
-        parsers.put(double.class, Double::parseDouble);
-        parsers.put(long.class, Long::parseLong);
-        parsers.put(float.class, Float::parseFloat);
-        parsers.put(int.class, Integer::parseInt);
+        parsers.put(boolean.class, booleanParser);
+        parsers.put(double.class, doubleParser);
+        parsers.put(long.class, longParser);
+        parsers.put(float.class, floatParser);
+        parsers.put(int.class, intParser);
     }
 
     @Override
     @Contract(pure = true)
     @CanIgnoreReturnValue
     public final <T> BaseArgumentHandler addParser(Map<Class<? extends T>, Function<String, ? extends T>> parser) {
-        parsers.putAll(parser);
+        for (Map.Entry<Class<? extends T>, Function<String, ? extends T>> entry : parser.entrySet()) {
+            parsers.put(entry.getKey(), ArgumentParser.of(entry.getValue()));
+        }
+        resolved = newResolver();
         return this;
     }
 
@@ -67,7 +92,17 @@ public class BaseArgumentHandler implements ArgumentHandler<BaseArgumentHandler>
     @Contract(pure = true)
     @CanIgnoreReturnValue
     public final <T> BaseArgumentHandler addParser(Class<? extends T> clazz, Function<String, ? extends T> argument) {
-        parsers.putIfAbsent(clazz, argument);
+        // like it always did, a parser which is already registered is kept
+        if (parsers.putIfAbsent(clazz, ArgumentParser.of(argument)) == null) resolved = newResolver();
+        return this;
+    }
+
+    @Override
+    @Contract(pure = true)
+    @CanIgnoreReturnValue
+    public final <T> BaseArgumentHandler addArgumentParser(Class<? extends T> clazz, ArgumentParser<? extends T> parser) {
+        parsers.put(clazz, parser);
+        resolved = newResolver();
         return this;
     }
 
@@ -76,8 +111,9 @@ public class BaseArgumentHandler implements ArgumentHandler<BaseArgumentHandler>
     @CanIgnoreReturnValue
     public final <T> BaseArgumentHandler addParserIfAbsent(@NotNull Map<Class<? extends T>, Function<String, ? extends T>> parser) {
         for (Map.Entry<Class<? extends T>, Function<String, ? extends T>> entry : parser.entrySet()) {
-            parsers.putIfAbsent(entry.getKey(), entry.getValue());
+            parsers.putIfAbsent(entry.getKey(), ArgumentParser.of(entry.getValue()));
         }
+        resolved = newResolver();
         return this;
     }
 
@@ -85,80 +121,244 @@ public class BaseArgumentHandler implements ArgumentHandler<BaseArgumentHandler>
     @Contract(pure = true)
     @CanIgnoreReturnValue
     public final <T> BaseArgumentHandler addParserIfAbsent(Class<? extends T> clazz, Function<String, ? extends T> argument) {
-        parsers.putIfAbsent(clazz, argument);
+        if (parsers.putIfAbsent(clazz, ArgumentParser.of(argument)) == null) resolved = newResolver();
         return this;
     }
 
-    @Nullable
+    /**
+     * Resolves the parser of the type, the result is cached per type until a parser is added.
+     * <p>
+     * The parser registered for the type itself wins, then enums get a parser generated for them,
+     * then the parser of the closest superclass or interface is used, checking that it returns an instance of the type.
+     * @param type the type of the parameter
+     * @return the parser, or null if there is none
+     */
+    public final @Nullable ArgumentParser<?> resolve(@NotNull Class<?> type) {
+        return resolved.get(type);
+    }
+
+    private ClassValue<ArgumentParser<?>> newResolver() {
+        return new ClassValue<>() {
+            @Override
+            protected ArgumentParser<?> computeValue(Class<?> type) {
+                return computeParser(type);
+            }
+        };
+    }
+
+    private @Nullable ArgumentParser<?> computeParser(@NotNull Class<?> type) {
+        ArgumentParser<?> parser = parsers.get(type);
+        if (parser != null) return parser;
+        if (Enum.class.isAssignableFrom(type) && type != Enum.class) return EnumArgumentParser.of(type);
+
+        for (Class<?> superclass = type.getSuperclass(); superclass != null && superclass != Object.class; superclass = superclass.getSuperclass()) {
+            parser = parsers.get(superclass);
+            if (parser != null) return checked(type, parser);
+        }
+
+        // breadth-first, so the closest interface wins
+        Deque<Class<?>> interfaces = new ArrayDeque<>();
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            interfaces.addAll(Arrays.asList(current.getInterfaces()));
+        }
+        Set<Class<?>> visited = new HashSet<>();
+        for (Class<?> current; (current = interfaces.poll()) != null; ) {
+            if (!visited.add(current)) continue;
+            parser = parsers.get(current);
+            if (parser != null) return checked(type, parser);
+            interfaces.addAll(Arrays.asList(current.getInterfaces()));
+        }
+        return null;
+    }
+
+    private static @NotNull ArgumentParser<?> checked(@NotNull Class<?> type, @NotNull ArgumentParser<?> parser) {
+        return argument -> {
+            Object value = parser.parse(argument);
+            if (value != null && !type.isInstance(value)) {
+                throw new IllegalArgumentException("Invalid " + type.getSimpleName() + ": " + argument);
+            }
+            return value;
+        };
+    }
+
+    @Override
+    public final @NotNull ParameterPlan compile(@NotNull Parameter parameter) {
+        Arg arg = parameter.getAnnotation(Arg.class);
+        Join join = parameter.getAnnotation(Join.class);
+        Range range = parameter.getAnnotation(Range.class);
+        Default defaultAnnotation = parameter.getAnnotation(Default.class);
+        Suggest suggest = parameter.getAnnotation(Suggest.class);
+        return compile(arg == null ? parameter.getName() : arg.id(), parameter.getType(),
+                join == null ? null : join.delimiter(),
+                range != null, range == null ? 0.0d : range.min(), range == null ? Double.MAX_VALUE : range.max(),
+                defaultAnnotation == null ? null : defaultAnnotation.def(),
+                suggest == null ? new String[0] : suggest.value());
+    }
+
+    @Override
+    public final @NotNull ParameterPlan compile(@NotNull String id, @NotNull Class<?> type, @Nullable String joinDelimiter,
+                                                boolean ranged, double min, double max,
+                                                @Nullable String def, @NotNull String[] suggestions) {
+        ArgumentParser<?> parser = resolve(type);
+        if (parser == null)
+            throw new ArgumentParseError(String.format("Unregistered argument type: %s at %s", type.getSimpleName(), id));
+
+        if (joinDelimiter != null && type != String.class)
+            throw new ArgumentParseError(String.format("@Join can only be used on a String, found %s at %s", type.getSimpleName(), id));
+
+        if (ranged && !isNumber(type))
+            throw new ArgumentParseError(String.format("@Range can only be used on a number, found %s at %s", type.getSimpleName(), id));
+
+        Object defaultValue = null;
+        if (def != null) {
+            defaultValue = def.isEmpty()
+                    ? (type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null)
+                    : parser.parse(def);
+        }
+
+        return new ParameterPlan(id, type, parser, ParameterPlan.Kind.of(parser), joinDelimiter, ranged, min, max,
+                (long) Math.ceil(min), (long) Math.floor(max), def != null, defaultValue, suggestions);
+    }
+
     @Override
     public final Object[] parseArguments(@NotNull CommandActor<?> sender,
-                                         @NotNull Method method,
-                                         @NotNull String[] args,
-                                         @Nullable ParsingPredicate function)
-            throws CommandExecutionException {
-        Class<?>[] types = method.getParameterTypes();
-        Parameter[] parameters = method.getParameters();
-        if (args.length == 0 && types.length == 1) return new Object[0];
-
-        Class<?> firstType = types[0];
-        int argIndex = 0, typesLength = types.length, argsLength = args.length;
-        Object[] list = new Object[typesLength];
-        String methodName = method.getName();
-
-        if (function != null && function.test(firstType, args, sender)) {
-            throw new CommandExecutionException("You are not allowed to use this command!");
+                                         @NotNull ExecutionPlan plan,
+                                         @NotNull CommandLine line, int offset)
+            throws CommandExecutionException, InvalidUsageException {
+        Object resolvedSender = plan.getSenderResolver().resolve(sender);
+        if (resolvedSender == null) {
+            throw new CommandExecutionException(Message.NOT_ALLOWED.getMessage());
+        }
+
+        int argsLength = line.size() - offset;
+        if (argsLength < plan.getMinArgs() || argsLength > plan.getMaxArgs()) {
+            throw new InvalidUsageException();
         }
 
-        while (argIndex <= argsLength) {
-            Parameter parameter = parameters[argIndex];
-            Arg arg = parameter.getAnnotation(Arg.class);
-            Function<String, ?> type = parsers.get(types[argIndex]);
-            if (type == null)
-                throw new ArgumentParseError(String.format("Unregistered argument type: %s at %s", types[argIndex].getSimpleName(), methodName));
-            String id = arg == null ? parameter.getName() : arg.id();
-            // TODO: figure out a good way to catch absent values and check for optional arguments
-            /*Default defaultAnnotation = parameter.getAnnotation(Default.class);
-            if (defaultAnnotation != null && argIndex > argsLength) {
-                list[argIndex] = defaultAnnotation.def().isEmpty() ? null : type.apply(defaultAnnotation.def());
-                argIndex++;
+        ParameterPlan[] parameters = plan.getParameters();
+        int parametersLength = parameters.length;
+        Object[] list = new Object[parametersLength + 1];
+        list[0] = resolvedSender;
+
+        for (int argIndex = 0; argIndex < parametersLength; argIndex++) {
+            ParameterPlan parameter = parameters[argIndex];
+            if (argIndex >= argsLength) {
+                list[argIndex + 1] = parameter.getDefaultValue();
                 continue;
-            } else if (argIndex > argsLength) {
-                throw new IllegalArgumentException(String.format("You must provide a value for %s!", id));
-            }*/
-            argIndex = parse(parameter, args, argIndex, list, argsLength, id, type, types);
+            }
+
+            if (parameter.isGreedy()) {
+                list[argIndex + 1] = join(parameter, line, offset + argIndex);
+                break;
+            }
+            list[argIndex + 1] = parse(parameter, line, offset + argIndex);
         }
 
         return list;
     }
 
-    private static int parse(Parameter parameter, String @NotNull [] args, int argIndex, Object[] list, int argsLength, String id, Function<String, ?> type, Class<?>[] types) {
-        Join join = parameter.getAnnotation(Join.class);
-        if (join != null) {
-            list[argIndex] = String.join(join.delimiter(), args);
-            return argsLength;
+    /**
+     * Joins the tokens as they were typed, quotes and escapes included, like the split arguments were joined before.
+     */
+    private static String join(@NotNull ParameterPlan parameter, @NotNull CommandLine line, int from) {
+        String delimiter = parameter.getJoinDelimiter();
+        // the rest of the line, which is the same tokens with their spaces
+        if (" ".equals(delimiter)) return line.remaining(from).toString();
+
+        StringBuilder builder = new StringBuilder(line.getInput().length() - line.getOffset(from));
+        for (int index = from; index < line.size(); index++) {
+            if (index != from) builder.append(delimiter);
+            builder.append(line.raw(index));
         }
+        return builder.toString();
+    }
 
-        Range range = parameter.getAnnotation(Range.class);
+    private static Object parse(@NotNull ParameterPlan parameter, @NotNull CommandLine line, int index) {
+        CharSequence input = line.getSequence(index);
+        int start = line.getStart(index), end = line.getEnd(index);
         try {
-            list[argIndex] = type.apply(args[argIndex]);
-            if (types[argIndex].isAssignableFrom(Number.class)) {
-                applyRange(range, parameter, (Double) types[argIndex].cast(list[argIndex]));
+            switch (parameter.getKind()) {
+                case INT: {
+                    int value = ((IntArgumentParser) parameter.getParser()).parseInt(input, start, end);
+                    if (parameter.isRanged() && (value < parameter.getLowerBound() || value > parameter.getUpperBound())) {
+                        throw new NotInRangeException();
+                    }
+                    return value;
+                }
+                case LONG: {
+                    long value = ((LongArgumentParser) parameter.getParser()).parseLong(input, start, end);
+                    if (parameter.isRanged() && (value < parameter.getLowerBound() || value > parameter.getUpperBound())) {
+                        throw new NotInRangeException();
+                    }
+                    return value;
+                }
+                case DOUBLE: {
+                    double value = ((DoubleArgumentParser) parameter.getParser()).parseDouble(input, start, end);
+                    if (parameter.isRanged()) applyRange(parameter, value);
+                    return value;
+                }
+                default: {
+                    Object value = parameter.getParser().parse(line.get(index));
+                    if (parameter.isRanged()) {
+                        applyRange(parameter, ((Number) value).doubleValue());
+                    }
+                    return value;
+                }
             }
-            return ++argIndex;
         } catch (NumberFormatException e) {
-            throw new IllegalArgumentException(String.format("You must provide a number for <%s>!", id));
+            throw new IllegalArgumentException(Message.NOT_A_NUMBER.getTemplate().render((builder, placeholder) -> builder.append(parameter.getId())));
         } catch (NotInRangeException e) {
-            // assuming range does exist then
-            throw new IllegalArgumentException(Message.NOT_IN_RANGE.getMessage().replace("%arg%", id)
-                    .replace("%min%", Double.toString(range.min()))
-                    .replace( "%max%", Double.toString(range.max())));
+            throw new IllegalArgumentException(Message.NOT_IN_RANGE.getTemplate().render((builder, placeholder) -> {
+                if (placeholder == 0) builder.append(parameter.getId());
+                else builder.append(placeholder == 1 ? parameter.getMin() : parameter.getMax());
+            }));
         }
     }
 
-    private static void applyRange(Range range, Parameter parameter, Double value) throws NotInRangeException {
-        if (range != null) {
-            double number = (Double) parameter.getType().cast(value);
-            if (number < range.min() || number > range.max()) throw new NotInRangeException();
+    private static void applyRange(@NotNull ParameterPlan parameter, double number) throws NotInRangeException {
+        if (number < parameter.getMin() || number > parameter.getMax()) throw new NotInRangeException();
+    }
+
+    /**
+     * Parses plain decimals such as {@code -12.5} without copying them, which covers coordinates and amounts of money,
+     * anything else (exponents, NaN, more than 15 digits...) falls back to {@link Double#parseDouble(String)}.
+     */
+    private static double parseDouble(@NotNull CharSequence input, int start, int end) {
+        int i = start;
+        boolean negative = i < end && input.charAt(i) == '-';
+        if (negative || (i < end && input.charAt(i) == '+')) i++;
+
+        long mantissa = 0;
+        int digits = 0, decimals = 0;
+        boolean dot = false;
+        for (; i < end; i++) {
+            char c = input.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > 15) break;
+                mantissa = mantissa * 10 + (c - '0');
+                if (dot) decimals++;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                break;
+            }
+        }
+
+        if (i != end || digits == 0) {
+            return Double.parseDouble(input.subSequence(start, end).toString());
         }
+        // both are exact doubles, so the division is correctly rounded
+        double value = decimals == 0 ? mantissa : mantissa / POWERS_OF_TEN[decimals];
+        return negative ? -value : value;
+    }
+
+    private static boolean parseBoolean(@NotNull CharSequence argument) {
+        if (argument.length() != 4) return false;
+        return Character.toLowerCase(argument.charAt(0)) == 't' && Character.toLowerCase(argument.charAt(1)) == 'r'
+                && Character.toLowerCase(argument.charAt(2)) == 'u' && Character.toLowerCase(argument.charAt(3)) == 'e';
+    }
+
+    private static boolean isNumber(@NotNull Class<?> type) {
+        return Number.class.isAssignableFrom(type) || (type.isPrimitive() && type != boolean.class && type != char.class);
     }
 }
@@ -0,0 +1,75 @@
+package io.github.flameware.common.base.arguments;
+
+import io.github.flameware.common.utils.SuggestionIndex;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Suggests a cached index which is recomputed in the background once stale, readers never wait for it.
+ * <p>
+ * The index and its expiry are published together, and only one refresh runs at a time.
+ * @author FlameyosFlow
+ * @see SuggestionProvider#cached(Supplier, long, java.util.concurrent.TimeUnit, Executor)
+ */
+final class CachedSuggestionProvider implements SuggestionProvider {
+    private static final Logger LOGGER = Logger.getLogger("FlameWare");
+
+    private final Supplier<? extends Collection<String>> suggestions;
+    private final long ttlNanos;
+    private final Executor executor;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+
+    CachedSuggestionProvider(@NotNull Supplier<? extends Collection<String>> suggestions, long ttlNanos, @NotNull Executor executor) {
+        this.suggestions = suggestions;
+        this.ttlNanos = ttlNanos;
+        this.executor = executor;
+        // stale from the start, so the first completion does not wait for the suggestions either
+        this.snapshot = new Snapshot(SuggestionIndex.empty(), System.nanoTime());
+        refresh();
+    }
+
+    @Override
+    public boolean complete(@NotNull Completions completions) {
+        Snapshot snapshot = this.snapshot;
+        if (System.nanoTime() - snapshot.expiry >= 0) refresh();
+        return completions.offer(snapshot.index);
+    }
+
+    private void refresh() {
+        if (!refreshing.compareAndSet(false, true)) return;
+        try {
+            executor.execute(() -> {
+                try {
+                    snapshot = new Snapshot(SuggestionIndex.of(suggestions.get()), System.nanoTime() + ttlNanos);
+                } catch (RuntimeException exception) {
+                    // keep the stale suggestions, and do not retry before the ttl is over again
+                    snapshot = new Snapshot(snapshot.index, System.nanoTime() + ttlNanos);
+                    LOGGER.log(Level.WARNING, "Could not refresh the suggestions", exception);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RuntimeException exception) {
+            // rejected by the executor, the next completion tries again
+            refreshing.set(false);
+        }
+    }
+
+    private static final class Snapshot {
+        private final SuggestionIndex index;
+        private final long expiry;
+
+        Snapshot(SuggestionIndex index, long expiry) {
+            this.index = index;
+            this.expiry = expiry;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package io.github.flameware.common.base.arguments;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The tokens of a command line, as offsets into the line itself so no token is ever copied.
+ * <p>
+ * Tokens are separated by spaces, a token starting with a double or single quote runs until the matching quote.
+ * Inside quotes a backslash escapes the quote or another backslash, every other backslash is kept as typed,
+ * so paths and patterns need no escaping.
+ * <p>
+ * Only tokens with escapes are copied, once and lazily, every other token is read straight from the line.
+ * @author FlameyosFlow
+ */
+public final class CommandLine {
+    private static final String[] NO_ESCAPES = new String[0];
+
+    private final CharSequence input;
+    /**
+     * The offset of the token in the line (including its opening quote), then the start and end of its content.
+     */
+    private int[] offsets;
+    private int size;
+    private String[] escaped = NO_ESCAPES;
+
+    private CommandLine(@NotNull CharSequence input, int capacity) {
+        this.input = input;
+        this.offsets = new int[Math.max(1, capacity) * 3];
+    }
+
+    /**
+     * Splits the command line into tokens, honoring quotes and escapes.
+     * <p>
+     * An unterminated quote runs until the end of the line, so a line which is still being typed can be tokenized too.
+     * @param input the command line, without the command label
+     * @return the tokens
+     */
+    @Contract("_ -> new")
+    public static @NotNull CommandLine tokenize(@NotNull CharSequence input) {
+        CommandLine line = new CommandLine(input, 8);
+        int length = input.length();
+        int i = 0;
+        for (;;) {
+            while (i < length && input.charAt(i) == ' ') i++;
+            if (i >= length) break;
+
+            int offset = i;
+            char quote = input.charAt(i);
+            boolean quoted = quote == '"' || quote == '\'';
+            if (quoted) i++;
+
+            int start = i;
+            boolean escapes = false;
+            while (i < length) {
+                char c = input.charAt(i);
+                if (quoted ? c == quote : c == ' ') break;
+                if (quoted && c == '\\' && i + 1 < length && isEscapable(input.charAt(i + 1), quote)) {
+                    escapes = true;
+                    i++;
+                }
+                i++;
+            }
+
+            line.add(offset, start, i, escapes);
+            // skip the closing quote
+            if (quoted && i < length) i++;
+        }
+        return line;
+    }
+
+    /**
+     * Creates the tokens of arguments which were already split, one token per argument without any quote or escape handling.
+     * @param args the arguments
+     * @return the tokens
+     */
+    @Contract("_ -> new")
+    public static @NotNull CommandLine of(@NotNull String[] args) {
+        int length = Math.max(0, args.length - 1);
+        for (String arg : args) length += arg.length();
+
+        StringBuilder builder = new StringBuilder(length);
+        CommandLine line = new CommandLine(builder, args.length);
+        for (String arg : args) {
+            if (builder.length() != 0) builder.append(' ');
+            int start = builder.length();
+            builder.append(arg);
+            line.add(start, start, builder.length(), false);
+        }
+        return line;
+    }
+
+    private void add(int offset, int start, int end, boolean escapes) {
+        int index = size * 3;
+        if (index == offsets.length) offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        offsets[index] = offset;
+        offsets[index + 1] = start;
+        offsets[index + 2] = end;
+        if (escapes) {
+            if (escaped.length <= size) escaped = Arrays.copyOf(escaped, Math.max(size + 1, offsets.length / 3));
+            // only quoted tokens have escapes
+            escaped[size] = unescape(input, start, end, input.charAt(offset));
+        }
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public @NotNull CharSequence getInput() {
+        return input;
+    }
+
+    /**
+     * Gets the sequence holding the content of the token, which is the line itself unless the token had escapes.
+     * <p>
+     * The content is at {@link #getStart(int)} until {@link #getEnd(int)} of this sequence, to parse it without copying it.
+     * @param index the index of the token
+     * @return the sequence holding the token
+     */
+    public @NotNull CharSequence getSequence(int index) {
+        String unescaped = index < escaped.length ? escaped[index] : null;
+        return unescaped == null ? input : unescaped;
+    }
+
+    /**
+     * Gets where the content of the token starts in its {@link #getSequence(int) sequence}.
+     * @param index the index of the token
+     * @return the start, inclusive
+     */
+    public int getStart(int index) {
+        return index < escaped.length && escaped[index] != null ? 0 : offsets[index * 3 + 1];
+    }
+
+    /**
+     * Gets where the content of the token ends in its {@link #getSequence(int) sequence}.
+     * @param index the index of the token
+     * @return the end, exclusive
+     */
+    public int getEnd(int index) {
+        return index < escaped.length && escaped[index] != null ? escaped[index].length() : offsets[index * 3 + 2];
+    }
+
+    /**
+     * Gets where the token starts in the command line, including its opening quote, to point at the token in error messages.
+     * @param index the index of the token
+     * @return the offset in the line
+     */
+    public int getOffset(int index) {
+        return offsets[index * 3];
+    }
+
+    /**
+     * Gets the content of the token as a slice, without quotes and escapes.
+     * @param index the index of the token
+     * @return the slice
+     */
+    public @NotNull CharSequence get(int index) {
+        return new Slice(getSequence(index), getStart(index), getEnd(index));
+    }
+
+    /**
+     * Gets the token as it was typed, including its quotes and escapes.
+     * @param index the index of the token
+     * @return the slice
+     */
+    public @NotNull CharSequence raw(int index) {
+        return new Slice(input, getOffset(index), getRawEnd(index));
+    }
+
+    /**
+     * Gets the index of the token which the end of the line is in, as that is where the cursor is while completing.
+     * <p>
+     * After a space, outside an unterminated quote, the cursor starts a new token, whose index is then {@link #size()}.
+     * @return the index of the token under the cursor
+     */
+    public int getCursorIndex() {
+        return size != 0 && getRawEnd(size - 1) == input.length() ? size - 1 : size;
+    }
+
+    private int getRawEnd(int index) {
+        int offset = getOffset(index), end = offsets[index * 3 + 2];
+        // the closing quote, unless the quote was never closed
+        if (offset != offsets[index * 3 + 1] && end < input.length() && input.charAt(end) == input.charAt(offset)) end++;
+        return end;
+    }
+
+    /**
+     * Gets the rest of the line from the token on, as it was typed, which is what greedy parameters take.
+     * @param index the index of the first token
+     * @return the slice
+     */
+    public @NotNull CharSequence remaining(int index) {
+        int end = input.length();
+        while (end > 0 && input.charAt(end - 1) == ' ') end--;
+        return new Slice(input, getOffset(index), end);
+    }
+
+    private static boolean isEscapable(char c, char quote) {
+        return c == quote || c == '\\';
+    }
+
+    private static String unescape(CharSequence input, int start, int end, char quote) {
+        StringBuilder builder = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c == '\\' && i + 1 < end && isEscapable(input.charAt(i + 1), quote)) c = input.charAt(++i);
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * A view of a range of a sequence, which is only copied by {@link #toString()}.
+     */
+    private static final class Slice implements CharSequence {
+        private final CharSequence sequence;
+        private final int start, end;
+
+        Slice(CharSequence sequence, int start, int end) {
+            this.sequence = sequence;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= end - start) throw new IndexOutOfBoundsException(index);
+            return sequence.charAt(start + index);
+        }
+
+        @Override
+        public @NotNull CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length() || start > end) throw new IndexOutOfBoundsException();
+            return new Slice(sequence, this.start + start, this.start + end);
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return sequence.subSequence(start, end).toString();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.flameware.common.base.arguments;
+
+import io.github.flameware.common.utils.SuggestionIndex;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The suggestions of a single tab completion, only the ones starting with what is being typed are kept,
+ * up to a maximum.
+ * @author FlameyosFlow
+ */
+public final class Completions {
+    private final String prefix;
+    private final int limit;
+    private final List<String> list;
+
+    /**
+     * Creates the completions.
+     * @param prefix what is being typed
+     * @param limit the maximum amount of suggestions
+     */
+    public Completions(@NotNull CharSequence prefix, int limit) {
+        this.prefix = prefix.toString();
+        this.limit = Math.max(0, limit);
+        this.list = new ArrayList<>(Math.min(this.limit, 16));
+    }
+
+    public @NotNull String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Suggests the value if it starts with the prefix, ignoring case.
+     * @param value the suggestion
+     * @return false once the maximum is reached, to stop suggesting
+     */
+    public boolean offer(@NotNull String value) {
+        if (list.size() >= limit) return false;
+        if (value.regionMatches(true, 0, prefix, 0, prefix.length())) list.add(value);
+        return list.size() < limit;
+    }
+
+    /**
+     * Suggests the values of the index which start with the prefix.
+     * @param index the index
+     * @return false once the maximum is reached, to stop suggesting
+     */
+    public boolean offer(@NotNull SuggestionIndex index) {
+        return offer(index, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Suggests at most the given amount of values of the index which start with the prefix.
+     * @param index the index
+     * @param max the maximum amount of values to take from the index
+     * @return false once the maximum is reached, to stop suggesting
+     */
+    public boolean offer(@NotNull SuggestionIndex index, int max) {
+        index.complete(prefix, list, Math.min(max, limit - list.size()));
+        return list.size() < limit;
+    }
+
+    public boolean isFull() {
+        return list.size() >= limit;
+    }
+
+    /**
+     * Gets the suggestions.
+     * @return the suggestions, owned by the caller
+     */
+    public @NotNull List<String> getList() {
+        return list;
+    }
+}
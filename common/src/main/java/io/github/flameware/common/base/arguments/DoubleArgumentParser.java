@@ -0,0 +1,25 @@
+package io.github.flameware.common.base.arguments;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Parses a double argument straight from its range of the command line, without boxing it.
+ * @author FlameyosFlow
+ */
+@FunctionalInterface
+public interface DoubleArgumentParser extends ArgumentParser<Double> {
+    /**
+     * Parses the argument.
+     * @param input the sequence holding the argument
+     * @param start the start of the argument, inclusive
+     * @param end the end of the argument, exclusive
+     * @return the parsed argument
+     * @throws NumberFormatException when the argument is not a valid double
+     */
+    double parseDouble(@NotNull CharSequence input, int start, int end);
+
+    @Override
+    default Double parse(@NotNull CharSequence argument) {
+        return parseDouble(argument, 0, argument.length());
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.flameware.common.base.arguments;
+
+import io.github.flameware.common.utils.LiteralTable;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses the constants of an enum by their name, ignoring case.
+ * <p>
+ * The names are put in a {@link LiteralTable} once, so even large enums like {@code Material} resolve in O(1)
+ * and an unknown name is a failed lookup instead of an exception thrown by {@link Enum#valueOf(Class, String)}.
+ * @param <E> the enum
+ * @author FlameyosFlow
+ */
+public final class EnumArgumentParser<E extends Enum<E>> implements ArgumentParser<E> {
+    private final Class<E> type;
+    private final LiteralTable<E> constants;
+    private final List<String> names;
+
+    private EnumArgumentParser(@NotNull Class<E> type) {
+        E[] values = type.getEnumConstants();
+        this.type = type;
+        this.constants = new LiteralTable<>(values.length);
+        List<String> names = new ArrayList<>(values.length);
+        for (E value : values) {
+            constants.put(value.name(), value);
+            names.add(value.name().toLowerCase(Locale.ROOT));
+        }
+        this.names = Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Creates the parser of the enum.
+     * @param type the enum, or a constant-specific class body of it
+     * @return the parser
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Contract("_ -> new")
+    public static @NotNull EnumArgumentParser<?> of(@NotNull Class<?> type) {
+        Class<?> enumType = type.isEnum() ? type : type.getSuperclass();
+        if (enumType == null || !enumType.isEnum()) {
+            throw new IllegalArgumentException(type.getSimpleName() + " is not an enum");
+        }
+        return new EnumArgumentParser(enumType);
+    }
+
+    @Override
+    public @NotNull E parse(@NotNull CharSequence argument) {
+        E value = constants.get(argument);
+        if (value == null) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName() + ": " + argument);
+        }
+        return value;
+    }
+
+    /**
+     * Gets the constant without throwing.
+     * @param argument the name of the constant, in any case
+     * @return the constant, or null if there is none
+     */
+    public @Nullable E find(@NotNull CharSequence argument) {
+        return constants.get(argument);
+    }
+
+    /**
+     * Gets the names of the constants, in lower case, in declaration order.
+     * @return the names
+     */
+    public @NotNull @Unmodifiable List<String> getNames() {
+        return names;
+    }
+}
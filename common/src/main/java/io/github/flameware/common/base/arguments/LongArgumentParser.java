@@ -0,0 +1,25 @@
+package io.github.flameware.common.base.arguments;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Parses a long argument straight from its range of the command line, without boxing it.
+ * @author FlameyosFlow
+ */
+@FunctionalInterface
+public interface LongArgumentParser extends ArgumentParser<Long> {
+    /**
+     * Parses the argument.
+     * @param input the sequence holding the argument
+     * @param start the start of the argument, inclusive
+     * @param end the end of the argument, exclusive
+     * @return the parsed argument
+     * @throws NumberFormatException when the argument is not a valid long
+     */
+    long parseLong(@NotNull CharSequence input, int start, int end);
+
+    @Override
+    default Long parse(@NotNull CharSequence argument) {
+        return parseLong(argument, 0, argument.length());
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.flameware.common.base.arguments;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A single command argument resolved once when the command is registered.
+ * <p>
+ * Holds the parser and everything that the annotations of the parameter describe, so parsing never touches reflection.
+ * @author FlameyosFlow
+ */
+@Getter
+@AllArgsConstructor
+public final class ParameterPlan {
+    private final @NotNull String id;
+    private final @NotNull Class<?> type;
+    private final @NotNull ArgumentParser<?> parser;
+    /**
+     * How the parser is called, primitive numbers are parsed and range checked without boxing.
+     */
+    private final @NotNull Kind kind;
+    /**
+     * The delimiter of a {@link io.github.flameware.common.annotations.Join @Join} parameter, null if it is not greedy.
+     */
+    private final @Nullable String joinDelimiter;
+    private final boolean ranged;
+    private final double min, max;
+    /**
+     * The {@link io.github.flameware.common.annotations.Range @Range} rounded inwards, for int and long parameters.
+     */
+    private final long lowerBound, upperBound;
+    private final boolean optional;
+    /**
+     * The already parsed {@link io.github.flameware.common.annotations.Default @Default} value.
+     */
+    private final @Nullable Object defaultValue;
+    private final @NotNull String[] suggestions;
+
+    public boolean isGreedy() {
+        return joinDelimiter != null;
+    }
+
+    public enum Kind {
+        /**
+         * Parsed by {@link ArgumentParser#parse(CharSequence)}.
+         */
+        OBJECT,
+        /**
+         * Parsed by {@link IntArgumentParser#parseInt(CharSequence, int, int)}.
+         */
+        INT,
+        /**
+         * Parsed by {@link LongArgumentParser#parseLong(CharSequence, int, int)}.
+         */
+        LONG,
+        /**
+         * Parsed by {@link DoubleArgumentParser#parseDouble(CharSequence, int, int)}.
+         */
+        DOUBLE;
+
+        public static @NotNull Kind of(@NotNull ArgumentParser<?> parser) {
+            if (parser instanceof IntArgumentParser) return INT;
+            if (parser instanceof LongArgumentParser) return LONG;
+            if (parser instanceof DoubleArgumentParser) return DOUBLE;
+            return OBJECT;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.flameware.common.base.arguments;
+
+import io.github.flameware.common.utils.SuggestionIndex;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A source of suggestions registered under a name in the {@link ArgumentSuggestionRegistry}.
+ * <p>
+ * Pick the policy by how often the suggestions change:
+ * <ul>
+ *     <li>{@link #of(Collection)} for suggestions which never change</li>
+ *     <li>{@link #perRequest(Supplier)} for suggestions which are cheap to compute and must always be current</li>
+ *     <li>{@link #cached(Supplier, long, TimeUnit)} for suggestions such as warps or kits, which are refreshed in the background once stale</li>
+ * </ul>
+ * Completion may run off the main thread, on Paper it runs on the thread of the connection,
+ * so the suggestions a provider computes must be safe to compute from any thread.
+ * @author FlameyosFlow
+ */
+@FunctionalInterface
+public interface SuggestionProvider {
+    /**
+     * Suggests the values which start with what is being typed.
+     * <p>
+     * This may be called from any thread, so it must not block.
+     * @param completions the completions
+     * @return false once the maximum amount of suggestions is reached
+     */
+    boolean complete(@NotNull Completions completions);
+
+    /**
+     * Suggests the same values forever.
+     * <p>
+     * The values are copied once, so completing runs none of your code and is safe from any thread.
+     * @param suggestions the suggestions
+     * @return the provider
+     */
+    @Contract("_ -> new")
+    static @NotNull SuggestionProvider of(@NotNull Collection<String> suggestions) {
+        SuggestionIndex index = SuggestionIndex.of(suggestions);
+        return completions -> completions.offer(index);
+    }
+
+    /**
+     * Suggests the same values forever.
+     * <p>
+     * The values are copied once, so completing runs none of your code and is safe from any thread.
+     * @param suggestions the suggestions
+     * @return the provider
+     */
+    @Contract("_ -> new")
+    static @NotNull SuggestionProvider of(@NotNull String... suggestions) {
+        SuggestionIndex index = SuggestionIndex.of(suggestions);
+        return completions -> completions.offer(index);
+    }
+
+    /**
+     * Computes the values on every completion, which happens on every keystroke.
+     * <p>
+     * The supplier may be called off the main thread, so it must not read the state of the server such as worlds or entities,
+     * use {@link #cached(Supplier, long, TimeUnit, Executor)} with the main thread as the executor for those.
+     * @param suggestions computes the suggestions, from any thread
+     * @return the provider
+     */
+    @Contract("_ -> new")
+    static @NotNull SuggestionProvider perRequest(@NotNull Supplier<? extends Collection<String>> suggestions) {
+        return completions -> {
+            for (String suggestion : suggestions.get()) {
+                if (!completions.offer(suggestion)) return false;
+            }
+            return true;
+        };
+    }
+
+    /**
+     * Caches the values for a while, once stale they are still suggested while they are recomputed in the common pool.
+     * @param suggestions computes the suggestions
+     * @param ttl how long the suggestions are fresh
+     * @param unit the unit of the ttl
+     * @return the provider, which starts computing the suggestions right away
+     */
+    @Contract("_, _, _ -> new")
+    static @NotNull SuggestionProvider cached(@NotNull Supplier<? extends Collection<String>> suggestions, long ttl, @NotNull TimeUnit unit) {
+        return cached(suggestions, ttl, unit, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Caches the values for a while, once stale they are still suggested while they are recomputed by the executor.
+     * @param suggestions computes the suggestions
+     * @param ttl how long the suggestions are fresh
+     * @param unit the unit of the ttl
+     * @param executor computes the suggestions, such as the async scheduler of the platform
+     * @return the provider, which starts computing the suggestions right away
+     */
+    @Contract("_, _, _, _ -> new")
+    static @NotNull SuggestionProvider cached(@NotNull Supplier<? extends Collection<String>> suggestions, long ttl,
+                                              @NotNull TimeUnit unit, @NotNull Executor executor) {
+        return new CachedSuggestionProvider(suggestions, unit.toNanos(ttl), executor);
+    }
+}
@@ -0,0 +1,308 @@
+package io.github.flameware.common.base.audit;
+
+import io.github.flameware.common.sender.CommandActor;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An audit log of the executed commands, written to a rotating file in the background.
+ * <p>
+ * Recording an execution only claims a slot of a lock-free ring buffer, a daemon thread drains the buffer in batches
+ * and appends them to the file, so the command never waits for the disk. When the buffer is full the record is dropped and counted.
+ * <p>
+ * Commands which run very often can be sampled, only one in every n executions is then recorded,
+ * the sampling rate is written with the record so the real amount can be estimated.
+ * <p>
+ * Every record is a line of tab separated values: the time, the unique id and name of the actor, the command and its arguments,
+ * and the sampling rate.
+ * @author FlameyosFlow
+ * @see io.github.flameware.common.base.manager.CommandManager#setAuditLog(CommandAuditLog)
+ */
+public final class CommandAuditLog implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger("FlameWare");
+    private static final int BATCH_SIZE = 1024;
+
+    private final Path file;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final int mask;
+    private final AtomicReferenceArray<Record> slots;
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * The next slot to drain, only written by the writer thread after the slot was cleared.
+     */
+    private volatile long head;
+    private final Map<String, Integer> sampling = new ConcurrentHashMap<>();
+    private volatile int defaultSampling = 1;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    private final ScheduledExecutorService writer;
+    private final StringBuilder builder = new StringBuilder(BATCH_SIZE * 64);
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private FileChannel channel;
+    private long size;
+
+    private CommandAuditLog(@NotNull Path file, int capacity, long maxFileSize, int maxFiles, long flushInterval, @NotNull TimeUnit unit) throws IOException {
+        if (capacity <= 0) throw new IllegalArgumentException("The capacity of the audit log must be positive");
+        if (maxFiles <= 0) throw new IllegalArgumentException("The audit log must keep at least one file");
+        this.file = file;
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.size = channel.size();
+
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FlameWare Audit Log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, unit);
+    }
+
+    /**
+     * Opens the audit log, buffering up to 8192 records, flushing them every 200 milliseconds
+     * and keeping 5 files of at most 10 MiB.
+     * @param file the file of the log, the rotated files get the suffixes .1, .2 and so on
+     * @return the audit log
+     * @throws IOException when the file cannot be opened
+     */
+    public static @NotNull CommandAuditLog open(@NotNull Path file) throws IOException {
+        return open(file, 8192, 10L * 1024 * 1024, 5, 200, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens the audit log.
+     * @param file the file of the log, the rotated files get the suffixes .1, .2 and so on
+     * @param capacity how many records are buffered before new ones are dropped, rounded up to a power of two
+     * @param maxFileSize the size after which the file is rotated, in bytes
+     * @param maxFiles how many files are kept, including the current one
+     * @param flushInterval how often the buffered records are written
+     * @param unit the unit of the interval
+     * @return the audit log
+     * @throws IOException when the file cannot be opened
+     */
+    public static @NotNull CommandAuditLog open(@NotNull Path file, int capacity, long maxFileSize, int maxFiles,
+                                                long flushInterval, @NotNull TimeUnit unit) throws IOException {
+        return new CommandAuditLog(file, capacity, maxFileSize, maxFiles, flushInterval, unit);
+    }
+
+    /**
+     * Records the execution, unless it is sampled out or the buffer is full.
+     * @param actor the actor who executed the command
+     * @param command the path of the command, like {@code "kit give"}
+     * @param arguments the arguments as they were typed
+     */
+    public void record(@NotNull CommandActor<?> actor, @NotNull String command, @NotNull CharSequence arguments) {
+        int rate = sampling.isEmpty() ? defaultSampling : sampling.getOrDefault(command, defaultSampling);
+        if (rate > 1 && ThreadLocalRandom.current().nextInt(rate) != 0) return;
+
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head > mask) {
+                dropped.increment();
+                return;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        slots.set((int) (sequence & mask), new Record(System.currentTimeMillis(), actor.getUniqueId(), actor.getName(),
+                command, arguments.toString(), rate));
+    }
+
+    /**
+     * Records only one in every n executions of the command.
+     * @param command the path of the command, like {@code "kit give"}
+     * @param rate n, 1 records every execution
+     */
+    public void setSampling(@NotNull String command, int rate) {
+        if (rate <= 0) throw new IllegalArgumentException("The sampling rate must be positive");
+        sampling.put(command, rate);
+    }
+
+    /**
+     * Records only one in every n executions of the commands without their own sampling rate.
+     * @param rate n, 1 records every execution
+     */
+    public void setDefaultSampling(int rate) {
+        if (rate <= 0) throw new IllegalArgumentException("The sampling rate must be positive");
+        this.defaultSampling = rate;
+    }
+
+    /**
+     * Gets how many records were dropped because the buffer was full.
+     * @return the amount of dropped records
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Gets how many records were written to the file.
+     * @return the amount of written records
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public @NotNull Path getFile() {
+        return file;
+    }
+
+    /**
+     * Stops the writer thread, then writes the buffered records and closes the file.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) writer.shutdownNow();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            flush();
+            try {
+                channel.close();
+            } catch (IOException exception) {
+                LOGGER.log(Level.WARNING, "Could not close the audit log " + file, exception);
+            }
+        }
+    }
+
+    private synchronized void flush() {
+        if (!channel.isOpen()) return;
+        try {
+            int drained;
+            do {
+                drained = drain();
+                if (drained == 0) break;
+                write();
+                written.add(drained);
+                if (size >= maxFileSize) rotate();
+            } while (drained == BATCH_SIZE);
+        } catch (IOException exception) {
+            LOGGER.log(Level.WARNING, "Could not write the audit log " + file, exception);
+        }
+    }
+
+    private int drain() {
+        builder.setLength(0);
+        long head = this.head;
+        int drained = 0;
+        for (; drained < BATCH_SIZE; drained++, head++) {
+            int index = (int) (head & mask);
+            Record record = slots.get(index);
+            // claimed but not published yet
+            if (record == null) break;
+            slots.lazySet(index, null);
+            record.appendTo(builder);
+        }
+        this.head = head;
+        return drained;
+    }
+
+    private void write() throws IOException {
+        CharBuffer chars = CharBuffer.wrap(builder);
+        encoder.reset();
+        for (;;) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                writeBuffer();
+                continue;
+            }
+            break;
+        }
+        while (encoder.flush(buffer).isOverflow()) writeBuffer();
+        writeBuffer();
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) size += channel.write(buffer);
+        buffer.clear();
+    }
+
+    private void rotate() throws IOException {
+        channel.close();
+        Path last = file.resolveSibling(file.getFileName() + "." + (maxFiles - 1));
+        if (maxFiles > 1) Files.deleteIfExists(last);
+        for (int i = maxFiles - 2; i >= 1; i--) {
+            Path rotated = file.resolveSibling(file.getFileName() + "." + i);
+            if (Files.exists(rotated)) {
+                Files.move(rotated, file.resolveSibling(file.getFileName() + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles > 1) Files.move(file, file.resolveSibling(file.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                maxFiles > 1 ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+        size = channel.size();
+    }
+
+    private static final class Record {
+        private final long time;
+        private final UUID actor;
+        private final String name;
+        private final String command;
+        private final String arguments;
+        private final int sampling;
+
+        Record(long time, UUID actor, String name, String command, String arguments, int sampling) {
+            this.time = time;
+            this.actor = actor;
+            this.name = name;
+            this.command = command;
+            this.arguments = arguments;
+            this.sampling = sampling;
+        }
+
+        void appendTo(StringBuilder builder) {
+            DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(time), builder);
+            builder.append('\t').append(actor)
+                    .append('\t').append(name)
+                    .append('\t').append(command);
+            if (!arguments.isEmpty()) builder.append(' ');
+            // a record is always a single line, whatever the console typed
+            for (int i = 0; i < arguments.length(); i++) {
+                char c = arguments.charAt(i);
+                builder.append(c == '\n' || c == '\r' || c == '\t' ? ' ' : c);
+            }
+            builder.append('\t').append(sampling).append('\n');
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.flameware.common.base.command;
+
+/**
+ * Invokes a single command method, created once when the command is registered.
+ * <p>
+ * The first element of the arguments is always the resolved sender, followed by the parsed arguments.
+ * @author FlameyosFlow
+ */
+@FunctionalInterface
+public interface CommandExecutor {
+    /**
+     * Invokes the command method.
+     * @param instance the command object
+     * @param args the sender followed by the parsed arguments
+     * @return the return value of the method, or null for void methods.
+     * @throws Throwable anything the command method throws
+     */
+    Object execute(Object instance, Object[] args) throws Throwable;
+}
@@ -1,22 +1,19 @@
 package io.github.flameware.common.base.command;
 
-import io.github.flameware.common.annotations.Cooldown;
-import io.github.flameware.common.annotations.Subcommand;
+import io.github.flameware.common.base.arguments.CommandLine;
 import io.github.flameware.common.base.manager.CommandManager;
+import io.github.flameware.common.base.manager.Message;
 import io.github.flameware.common.exceptions.ArgumentParseException;
 import io.github.flameware.common.exceptions.CommandExecutionException;
 import io.github.flameware.common.exceptions.CooldownActiveException;
-import io.github.flameware.common.exceptions.NotInRangeException;
+import io.github.flameware.common.exceptions.InvalidUsageException;
 import io.github.flameware.common.sender.CommandActor;
-import io.github.flameware.common.utils.ParsingPredicate;
 
 import lombok.AllArgsConstructor;
 import org.jetbrains.annotations.NotNull;
 
-import java.lang.reflect.Method;
-import java.time.Duration;
 import java.util.List;
-import java.util.function.Predicate;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -27,7 +24,7 @@ import java.util.logging.Logger;
 public class CommandImpl implements ICommand {
     private final CommandManager manager;
     private final CommandInfo info;
-    private final Object command;
+    private final ExecutionPlan plan;
 
     @Override
     public @NotNull String getName() {
@@ -55,80 +52,61 @@ public class CommandImpl implements ICommand {
     }
 
     @Override
-    public boolean execute(@NotNull Method m,
-                           @NotNull CommandActor<?> sender,
-                           String @NotNull [] args,
-                           @NotNull Predicate<Class<?>> methodRunPredicate,
-                           @NotNull ParsingPredicate predicate)
-            throws ArgumentParseException, CooldownActiveException, NotInRangeException {
-        Logger logger = manager.getLogger();
-        String[] subargs = new String[args.length];
+    public boolean execute(@NotNull CommandActor<?> sender, @NotNull CommandLine line, int offset)
+            throws ArgumentParseException, CooldownActiveException, InvalidUsageException {
         try {
-            Object[] parsedArgs = setArguments(sender, m, args, predicate);
-            if (parsedArgs.length == 0) {
-                applyCooldown(m, sender);
-                return runMethod(m, new Object[]{}, methodRunPredicate, sender);
-            }
-            applyCooldown(m, sender);
-            Subcommand subcommand = m.getAnnotation(Subcommand.class);
-            var wrapper = manager.getCommands().get(args[0]);
-            if (subcommand != null && wrapper != null) {
-                System.arraycopy(args, 0, subargs, 0, subargs.length);
-                logger.info("Command " + getName() + " " + args[0] + " was executed by " + sender.getName());
-                return wrapper.execute(m, sender, subargs, methodRunPredicate, predicate);
+            Object[] parsedArgs = setArguments(sender, line, offset);
+            applyCooldown(sender);
+            if (!runMethod(parsedArgs, sender)) return false;
+            // nothing is built when logging is disabled
+            if (manager.isLogging()) {
+                String path = plan.getPath();
+                manager.logExecution(sender, path == null ? getName() : path, offset < line.size() ? line.remaining(offset) : "");
             }
-            return runMethod(m, parsedArgs, methodRunPredicate, sender);
+            return true;
         } catch (IllegalStateException | IllegalArgumentException exception) {
             throw new IllegalArgumentException(exception.getMessage());
         }
     }
 
     @Override
-    public Object[] setArguments(CommandActor<?> sender, Method m, String[] args, ParsingPredicate predicate) throws ArgumentParseException {
+    public Object[] setArguments(CommandActor<?> sender, CommandLine line, int offset) throws ArgumentParseException, InvalidUsageException {
         try {
-            return manager.getArgumentHandler().parseArguments(sender, m, args, predicate);
+            return manager.getArgumentHandler().parseArguments(sender, plan, line, offset);
         } catch (CommandExecutionException e) {
             throw new ArgumentParseException(e.getMessage());
         }
     }
 
     @Override
-    public boolean runMethod(@NotNull Method m, Object[] parsedArgs, Predicate<Class<?>> predicate, CommandActor<?> actor) {
-        Class<?> type = m.getParameterTypes()[0];
+    public boolean runMethod(Object[] parsedArgs, CommandActor<?> actor) {
         Logger logger = manager.getLogger();
         try {
-            if (type.isAssignableFrom(CommandActor.class)) {
-                manager.invoke(m, command, actor, parsedArgs);
-                logger.info("Command " + getName() + " was executed by " + actor.getName());
-                return true;
-            } else if (predicate.test(type)) {
-                logger.info("Command " + getName() + " was executed by " + actor.getName());
-                return true;
-            }
-            String errorMessage = String.format("Platform Sender or CommandActor expected at parameter %s at %s:%s", m.getParameters()[0].getName(), m.getName(), m.getDeclaringClass().getSimpleName());
-            logger.log(Level.SEVERE, errorMessage, new IllegalAccessError(errorMessage));
-            return false;
+            manager.invoke(actor, plan, parsedArgs);
+            return true;
         } catch (IllegalCallerException exception) {
             logger.log(Level.SEVERE, exception.getMessage(), new IllegalCallerException(exception.getMessage()));
             return false;
         }
     }
 
+    @Override
+    public @NotNull ExecutionPlan getPlan() {
+        return plan;
+    }
+
     @Override
     public @NotNull CommandInfo getInfo() {
         return info;
     }
 
-    private void applyCooldown(@NotNull Method m, CommandActor<?> defaultSender) throws CooldownActiveException {
-        Cooldown cooldownAnnotation = (m.getAnnotation(Cooldown.class) != null ? m.getAnnotation(Cooldown.class) : m.getDeclaringClass().getAnnotation(Cooldown.class));
-        if (cooldownAnnotation != null) {
-            String name = defaultSender.getName();
-            if (manager.isCooldownActive(name, getName())) {
-                throw new CooldownActiveException("You must wait " + Duration.of(cooldownAnnotation.time(),
-                        cooldownAnnotation.unit().toChronoUnit()).toSeconds() +
-                        "&cs before using this command again.");
-            } else {
-                manager.addCooldown(name, getName(), cooldownAnnotation);
+    private void applyCooldown(CommandActor<?> defaultSender) throws CooldownActiveException {
+        if (plan.hasCooldown()) {
+            long remaining = manager.getCooldownStore().tryAcquire(defaultSender.getUniqueId(), plan.getCooldownId(),
+                    TimeUnit.MILLISECONDS.toNanos(plan.getCooldownMillis()));
+            if (remaining > 0) {
+                long seconds = TimeUnit.NANOSECONDS.toSeconds(remaining - 1) + 1;
+                throw new CooldownActiveException(Message.COOLDOWN.getTemplate().render((builder, placeholder) -> builder.append(seconds)));
             }
         }
     }
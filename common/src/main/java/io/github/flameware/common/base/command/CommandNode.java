@@ -0,0 +1,229 @@
+package io.github.flameware.common.base.command;
+
+import io.github.flameware.common.base.arguments.CommandLine;
+import io.github.flameware.common.base.arguments.ParameterPlan;
+import io.github.flameware.common.utils.LiteralTable;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A literal node of the command dispatch tree, the root command at depth 1 and its (nested) subcommands below it.
+ * <p>
+ * Aliases and case folding are resolved once at registration into the child table of the parent,
+ * so dispatching only costs one table lookup per literal and never allocates a String.
+ * <p>
+ * The arguments of the command hanging off this node are described by its {@link ExecutionPlan}.
+ * @author FlameyosFlow
+ */
+public final class CommandNode {
+    private final @Nullable CommandNode parent;
+    private final @NotNull String name;
+    private final int depth;
+    private final LiteralTable<CommandNode> children = new LiteralTable<>();
+    private final List<CommandNode> childList = new ArrayList<>(4);
+    private final List<String> aliases = new ArrayList<>(2);
+    private volatile @Nullable ICommand command;
+    private volatile @Nullable String usage;
+
+    private CommandNode(@Nullable CommandNode parent, @NotNull String name) {
+        this.parent = parent;
+        this.name = name;
+        this.depth = parent == null ? 0 : parent.depth + 1;
+    }
+
+    /**
+     * Creates the root of a dispatch tree, which is nameless and only holds the root commands.
+     * @return the root node
+     */
+    public static @NotNull CommandNode root() {
+        return new CommandNode(null, "");
+    }
+
+    /**
+     * Gets the child literal with the given name, or creates it with the given aliases.
+     * @param name the name of the literal
+     * @param aliases the aliases of the literal
+     * @return the child node
+     * @throws IllegalStateException when the name or an alias already belongs to another literal
+     */
+    public synchronized @NotNull CommandNode literal(@NotNull String name, @NotNull String... aliases) {
+        CommandNode child = children.get(name);
+        if (child == null) {
+            child = new CommandNode(this, name);
+            children.put(name, child);
+            childList.add(child);
+        } else if (!child.name.equalsIgnoreCase(name)) {
+            throw new IllegalStateException("Literal " + name + " is already an alias of " + child.getPath());
+        }
+
+        for (String alias : aliases) {
+            if (alias.isEmpty()) continue;
+            CommandNode existing = children.get(alias);
+            if (existing == null) {
+                children.put(alias, child);
+                child.aliases.add(alias);
+            } else if (existing != child) {
+                throw new IllegalStateException("Alias " + alias + " of " + child.getPath() + " is already taken by " + existing.getPath());
+            }
+        }
+        return child;
+    }
+
+    /**
+     * Gets the child literal by its name or alias, ignoring case.
+     * @param literal the typed literal
+     * @return the child, or null if there is no such literal
+     */
+    public @Nullable CommandNode getChild(@NotNull CharSequence literal) {
+        return children.get(literal);
+    }
+
+    /**
+     * Follows the literals of the arguments as deep as possible.
+     * <p>
+     * The arguments of the command start at {@code result.getDepth() - getDepth()}.
+     * @param args the arguments after this node
+     * @return the deepest node matched, which is this node if nothing matched
+     */
+    public @NotNull CommandNode walk(@NotNull String[] args) {
+        return walk(args, args.length);
+    }
+
+    /**
+     * Follows the literals of the first arguments as deep as possible.
+     * @param args the arguments after this node
+     * @param length how many arguments may be matched
+     * @return the deepest node matched, which is this node if nothing matched
+     */
+    public @NotNull CommandNode walk(@NotNull String[] args, int length) {
+        CommandNode node = this;
+        for (int i = 0; i < length; i++) {
+            CommandNode child = node.children.get(args[i]);
+            if (child == null) break;
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * Follows the literals of the tokens as deep as possible, reading them straight from the command line.
+     * @param line the tokens after this node
+     * @return the deepest node matched, which is this node if nothing matched
+     */
+    public @NotNull CommandNode walk(@NotNull CommandLine line) {
+        return walk(line, line.size());
+    }
+
+    /**
+     * Follows the literals of the first tokens as deep as possible, reading them straight from the command line.
+     * @param line the tokens after this node
+     * @param length how many tokens may be matched
+     * @return the deepest node matched, which is this node if nothing matched
+     */
+    public @NotNull CommandNode walk(@NotNull CommandLine line, int length) {
+        CommandNode node = this;
+        for (int i = 0; i < length; i++) {
+            CommandNode child = node.children.get(line.getSequence(i), line.getStart(i), line.getEnd(i));
+            if (child == null) break;
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * Sets the command executed when dispatching ends at this node.
+     * @param command the command
+     * @throws IllegalStateException when there is already a command at this node
+     */
+    public synchronized void setCommand(@NotNull ICommand command) {
+        if (this.command != null) {
+            throw new IllegalStateException("Command " + getPath() + " is registered twice");
+        }
+        this.command = command;
+        for (CommandNode node = this; node != null; node = node.parent) {
+            node.usage = null;
+        }
+    }
+
+    public @Nullable ICommand getCommand() {
+        return command;
+    }
+
+    public @Nullable CommandNode getParent() {
+        return parent;
+    }
+
+    public @NotNull String getName() {
+        return name;
+    }
+
+    /**
+     * Gets how many literals there are until this node, the root command is at depth 1.
+     * @return the depth
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public @NotNull @Unmodifiable List<String> getAliases() {
+        return Collections.unmodifiableList(aliases);
+    }
+
+    /**
+     * Gets the child literals, in the order they were registered.
+     * @return the children
+     */
+    public synchronized @NotNull @Unmodifiable List<CommandNode> getChildren() {
+        return List.copyOf(childList);
+    }
+
+    /**
+     * Gets the literals until this node, separated by spaces, like {@code "kit give"}.
+     * @return the path
+     */
+    public @NotNull String getPath() {
+        if (parent == null || parent.parent == null) return name;
+        return parent.getPath() + ' ' + name;
+    }
+
+    /**
+     * Gets the usage of every command at and below this node, one per line, computed once.
+     * @return the usage
+     */
+    public @NotNull String getUsage() {
+        String usage = this.usage;
+        if (usage == null) {
+            StringBuilder builder = new StringBuilder(64);
+            appendUsage(builder);
+            this.usage = usage = builder.toString();
+        }
+        return usage;
+    }
+
+    private void appendUsage(StringBuilder builder) {
+        ICommand command = this.command;
+        if (command != null) {
+            String usage = command.getUsage();
+            if (builder.length() != 0) builder.append('\n');
+            if (usage != null && !usage.isEmpty() && !"/".equals(usage)) {
+                builder.append(usage);
+            } else {
+                builder.append('/').append(getPath());
+                for (ParameterPlan parameter : command.getPlan().getParameters()) {
+                    builder.append(' ').append(parameter.isOptional() ? '[' : '<')
+                            .append(parameter.getId())
+                            .append(parameter.isOptional() ? ']' : '>');
+                }
+            }
+        }
+        for (CommandNode child : getChildren()) {
+            child.appendUsage(builder);
+        }
+    }
+}
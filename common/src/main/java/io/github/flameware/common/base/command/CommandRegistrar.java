@@ -0,0 +1,58 @@
+package io.github.flameware.common.base.command;
+
+import io.github.flameware.common.base.manager.CommandManager;
+import io.github.flameware.common.utils.TiConsumer;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Registers every command method of a command class without reflection.
+ * <p>
+ * Implementations are generated at compile time by the FlameWare annotation processor, next to the command class,
+ * and are loaded by the command managers in place of the reflective registration.
+ * @param <T> the command class
+ * @author FlameyosFlow
+ */
+public interface CommandRegistrar<T> {
+    /**
+     * The suffix of the generated registrar, appended to the binary name of the command class with '$' replaced by '_'.
+     */
+    String SUFFIX = "_FlameWareRegistrar";
+
+    /**
+     * Compiles the execution plan of every command method and hands it to the registration.
+     * @param manager the command manager
+     * @param command the command object
+     * @param registration accepts the information of the root command, the information of the (sub)command and the execution plan of each command method
+     */
+    void register(@NotNull CommandManager manager, @NotNull T command, @NotNull TiConsumer<CommandInfo, CommandInfo, ExecutionPlan> registration);
+
+    /**
+     * Gets the binary name of the registrar generated for the command class.
+     * @param binaryName the binary name of the command class
+     * @return the binary name of the registrar
+     */
+    static @NotNull String nameOf(@NotNull String binaryName) {
+        int packageEnd = binaryName.lastIndexOf('.') + 1;
+        return binaryName.substring(0, packageEnd) + binaryName.substring(packageEnd).replace('$', '_') + SUFFIX;
+    }
+
+    /**
+     * Loads the registrar generated for the command class.
+     * @param type the command class
+     * @param <T> the command class
+     * @return the registrar, or null if the class was not processed by the annotation processor.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> @Nullable CommandRegistrar<T> find(@NotNull Class<T> type) {
+        try {
+            Class<?> registrar = Class.forName(nameOf(type.getName()), true, type.getClassLoader());
+            return (CommandRegistrar<T>) registrar.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException exception) {
+            return null;
+        } catch (ReflectiveOperationException | ClassCastException exception) {
+            throw new IllegalStateException("Could not load the generated registrar of " + type.getSimpleName(), exception);
+        }
+    }
+}
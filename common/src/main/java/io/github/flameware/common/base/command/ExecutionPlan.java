@@ -0,0 +1,93 @@
+package io.github.flameware.common.base.command;
+
+import io.github.flameware.common.base.arguments.ParameterPlan;
+import io.github.flameware.common.base.execution.Bulkhead;
+import io.github.flameware.common.sender.SenderResolver;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+
+/**
+ * The immutable execution plan of a single command method, compiled once when the command is registered.
+ * <p>
+ * Execution only walks this plan, there is no reflection or annotation lookup while running a command.
+ * <p>
+ * Plans are either compiled from the {@link Method} by reflection, or built by the classes generated at compile time
+ * by the FlameWare annotation processor, both are finished by {@link io.github.flameware.common.base.manager.CommandManager#compile(ExecutionPlanBuilder)}.
+ * @author FlameyosFlow
+ * @see io.github.flameware.common.base.manager.CommandManager#compile(Method, Object)
+ */
+@Getter
+@Builder(toBuilder = true)
+public final class ExecutionPlan {
+    /**
+     * The command method, null if the plan was generated at compile time.
+     */
+    private final @Nullable Method method;
+    private final @NotNull String methodName;
+    private final @NotNull Object instance;
+    /**
+     * The type of the first parameter, which is always the sender.
+     */
+    private final @NotNull Class<?> senderType;
+    private final SenderResolver senderResolver;
+    /**
+     * The arguments of the method, excluding the sender which is always the first parameter.
+     */
+    private final @NotNull ParameterPlan[] parameters;
+    private final int minArgs, maxArgs;
+    /**
+     * The cooldown of the command in milliseconds, or 0 if there is none.
+     */
+    private final long cooldownMillis;
+    /**
+     * How long the {@link java.util.concurrent.CompletionStage CompletionStage} returned by the command may take in milliseconds, or 0 if forever.
+     */
+    private final long timeoutMillis;
+    /**
+     * The id of the command in the {@link io.github.flameware.common.base.cooldown.CooldownStore cooldown store}, interned when the command is added to the tree.
+     */
+    private final int cooldownId;
+    private final boolean async;
+    /**
+     * The name of the executor of the asynchronous command, null for the async executor of the command manager.
+     */
+    private final @Nullable String executorName;
+    /**
+     * Limits the invocations of the asynchronous command running at once, null if unlimited.
+     */
+    private final @Nullable Bulkhead bulkhead;
+    /**
+     * Whether identical invocations of the asynchronous command share the running one.
+     */
+    private final boolean coalesce;
+    private final boolean subcommand;
+    /**
+     * The literals leading to the command, like {@code "kit give"}, set when the command is added to the tree.
+     */
+    private final @Nullable String path;
+    private final @NotNull CommandExecutor executor;
+
+    /**
+     * Gets the parameter which takes the argument, a greedy parameter takes every argument from its own on.
+     * @param argument the index of the argument, after the subcommand literals
+     * @return the parameter, or null if there are more arguments than parameters
+     */
+    public @Nullable ParameterPlan getParameterAt(int argument) {
+        if (argument < 0) return null;
+        int length = Math.min(argument + 1, parameters.length);
+        for (int i = 0; i < length; i++) {
+            if (parameters[i].isGreedy()) return parameters[i];
+        }
+        return argument < parameters.length ? parameters[argument] : null;
+    }
+
+    public boolean hasCooldown() {
+        return cooldownMillis > 0;
+    }
+}
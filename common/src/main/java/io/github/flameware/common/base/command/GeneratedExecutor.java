@@ -0,0 +1,122 @@
+package io.github.flameware.common.base.command;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+/**
+ * Generates a small class per command method which calls it directly, used by {@link io.github.flameware.common.ExecutorBackend#GENERATED}.
+ * <p>
+ * The class is spun by {@link LambdaMetafactory} inside the command class itself, it casts and unboxes every argument
+ * and then calls the method with a plain invokevirtual, so a hot command costs about as much as a normal virtual call.
+ * <p>
+ * On Java 15+ the metafactory defines these as hidden classes, on Java 11 as anonymous classes, so both are covered without a multi-release jar.
+ * @author FlameyosFlow
+ */
+@ApiStatus.Internal
+public final class GeneratedExecutor {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final Class<?>[] ARITIES = {
+            Arity1.class, Arity2.class, Arity3.class, Arity4.class,
+            Arity5.class, Arity6.class, Arity7.class, Arity8.class
+    };
+
+    private static final Class<?>[] VOID_ARITIES = {
+            VoidArity1.class, VoidArity2.class, VoidArity3.class, VoidArity4.class,
+            VoidArity5.class, VoidArity6.class, VoidArity7.class, VoidArity8.class
+    };
+
+    private GeneratedExecutor() {
+    }
+
+    /**
+     * Generates the direct-call executor of the method.
+     * @param method the command method
+     * @return the executor, or null if the method cannot be linked directly (more than 8 parameters, static or inaccessible)
+     */
+    public static @Nullable CommandExecutor generate(@NotNull Method method) {
+        int count = method.getParameterCount();
+        if (count == 0 || count > ARITIES.length || Modifier.isStatic(method.getModifiers())) return null;
+
+        boolean isVoid = method.getReturnType() == void.class;
+        Class<?> arity = (isVoid ? VOID_ARITIES : ARITIES)[count - 1];
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), LOOKUP);
+            MethodHandle target = lookup.unreflect(method);
+
+            Class<?>[] erased = new Class<?>[count + 1];
+            Arrays.fill(erased, Object.class);
+            Class<?>[] instantiated = new Class<?>[count + 1];
+            instantiated[0] = method.getDeclaringClass();
+            Class<?>[] types = method.getParameterTypes();
+            for (int i = 0; i < count; i++) {
+                instantiated[i + 1] = MethodType.methodType(types[i]).wrap().returnType();
+            }
+            Class<?> returnType = isVoid ? void.class : Object.class;
+
+            Object function = LambdaMetafactory.metafactory(lookup, "call", MethodType.methodType(arity),
+                    MethodType.methodType(returnType, erased), target,
+                    MethodType.methodType(isVoid ? void.class : MethodType.methodType(method.getReturnType()).wrap().returnType(), instantiated))
+                    .getTarget().invoke();
+            return isVoid ? adaptVoid(function, count) : adapt(function, count);
+        } catch (Throwable exception) {
+            return null;
+        }
+    }
+
+    private static CommandExecutor adapt(Object function, int count) {
+        switch (count) {
+            case 1: { Arity1 f = (Arity1) function; return (o, a) -> f.call(o, a[0]); }
+            case 2: { Arity2 f = (Arity2) function; return (o, a) -> f.call(o, a[0], a[1]); }
+            case 3: { Arity3 f = (Arity3) function; return (o, a) -> f.call(o, a[0], a[1], a[2]); }
+            case 4: { Arity4 f = (Arity4) function; return (o, a) -> f.call(o, a[0], a[1], a[2], a[3]); }
+            case 5: { Arity5 f = (Arity5) function; return (o, a) -> f.call(o, a[0], a[1], a[2], a[3], a[4]); }
+            case 6: { Arity6 f = (Arity6) function; return (o, a) -> f.call(o, a[0], a[1], a[2], a[3], a[4], a[5]); }
+            case 7: { Arity7 f = (Arity7) function; return (o, a) -> f.call(o, a[0], a[1], a[2], a[3], a[4], a[5], a[6]); }
+            default: { Arity8 f = (Arity8) function; return (o, a) -> f.call(o, a[0], a[1], a[2], a[3], a[4], a[5], a[6], a[7]); }
+        }
+    }
+
+    private static CommandExecutor adaptVoid(Object function, int count) {
+        switch (count) {
+            case 1: { VoidArity1 f = (VoidArity1) function; return (o, a) -> { f.call(o, a[0]); return null; }; }
+            case 2: { VoidArity2 f = (VoidArity2) function; return (o, a) -> { f.call(o, a[0], a[1]); return null; }; }
+            case 3: { VoidArity3 f = (VoidArity3) function; return (o, a) -> { f.call(o, a[0], a[1], a[2]); return null; }; }
+            case 4: { VoidArity4 f = (VoidArity4) function; return (o, a) -> { f.call(o, a[0], a[1], a[2], a[3]); return null; }; }
+            case 5: { VoidArity5 f = (VoidArity5) function; return (o, a) -> { f.call(o, a[0], a[1], a[2], a[3], a[4]); return null; }; }
+            case 6: { VoidArity6 f = (VoidArity6) function; return (o, a) -> { f.call(o, a[0], a[1], a[2], a[3], a[4], a[5]); return null; }; }
+            case 7: { VoidArity7 f = (VoidArity7) function; return (o, a) -> { f.call(o, a[0], a[1], a[2], a[3], a[4], a[5], a[6]); return null; }; }
+            default: { VoidArity8 f = (VoidArity8) function; return (o, a) -> { f.call(o, a[0], a[1], a[2], a[3], a[4], a[5], a[6], a[7]); return null; }; }
+        }
+    }
+
+    // The functional interfaces implemented by the generated classes, one per parameter count.
+    // They have to be public because the classes are defined inside the package of the command class.
+
+    @FunctionalInterface public interface Arity1 { Object call(Object o, Object a); }
+    @FunctionalInterface public interface Arity2 { Object call(Object o, Object a, Object b); }
+    @FunctionalInterface public interface Arity3 { Object call(Object o, Object a, Object b, Object c); }
+    @FunctionalInterface public interface Arity4 { Object call(Object o, Object a, Object b, Object c, Object d); }
+    @FunctionalInterface public interface Arity5 { Object call(Object o, Object a, Object b, Object c, Object d, Object e); }
+    @FunctionalInterface public interface Arity6 { Object call(Object o, Object a, Object b, Object c, Object d, Object e, Object f); }
+    @FunctionalInterface public interface Arity7 { Object call(Object o, Object a, Object b, Object c, Object d, Object e, Object f, Object g); }
+    @FunctionalInterface public interface Arity8 { Object call(Object o, Object a, Object b, Object c, Object d, Object e, Object f, Object g, Object h); }
+
+    @FunctionalInterface public interface VoidArity1 { void call(Object o, Object a); }
+    @FunctionalInterface public interface VoidArity2 { void call(Object o, Object a, Object b); }
+    @FunctionalInterface public interface VoidArity3 { void call(Object o, Object a, Object b, Object c); }
+    @FunctionalInterface public interface VoidArity4 { void call(Object o, Object a, Object b, Object c, Object d); }
+    @FunctionalInterface public interface VoidArity5 { void call(Object o, Object a, Object b, Object c, Object d, Object e); }
+    @FunctionalInterface public interface VoidArity6 { void call(Object o, Object a, Object b, Object c, Object d, Object e, Object f); }
+    @FunctionalInterface public interface VoidArity7 { void call(Object o, Object a, Object b, Object c, Object d, Object e, Object f, Object g); }
+    @FunctionalInterface public interface VoidArity8 { void call(Object o, Object a, Object b, Object c, Object d, Object e, Object f, Object g, Object h); }
+}
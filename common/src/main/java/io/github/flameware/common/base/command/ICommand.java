@@ -1,18 +1,16 @@
 package io.github.flameware.common.base.command;
 
+import io.github.flameware.common.base.arguments.CommandLine;
 import io.github.flameware.common.base.manager.CommandManager;
 import io.github.flameware.common.exceptions.ArgumentParseException;
 import io.github.flameware.common.exceptions.CooldownActiveException;
-import io.github.flameware.common.exceptions.NotInRangeException;
+import io.github.flameware.common.exceptions.InvalidUsageException;
 import io.github.flameware.common.sender.CommandActor;
-import io.github.flameware.common.utils.ParsingPredicate;
 
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
-import java.lang.reflect.Method;
 import java.util.List;
-import java.util.function.Predicate;
 
 /**
  * The interface for command implementations.
@@ -56,35 +54,71 @@ public interface ICommand {
      * <p>
      * You can use the {@link CommandActor} to get the sender of the command,
      * <p>
-     * and then you MUST understand each and every parameter for their usage,
-     * or you will experience issues
-     * @param m the method to execute.
+     * the arguments are parsed by walking the {@link #getPlan() execution plan} of the command.
      * @param sender the command actor
      * @param args the arguments for such modules
-     * @param methodRunPredicate the predicate to check for requirements in method invocation
-     * @param predicate the predicate for checking for argument parsing in method invocation
      * @return true or false, true is returned for errors that "fail successfully" or for successful invocation, else false.
      * @throws ArgumentParseException when the parsed arguments are invalid.
      * @throws CooldownActiveException when the cooldown is active
-     * @throws NotInRangeException when a number argument is not in range
+     * @throws InvalidUsageException when there are too few or too many arguments
      */
-     boolean execute(Method m, CommandActor<?> sender, String[] args,
-                     Predicate<Class<?>> methodRunPredicate, ParsingPredicate predicate)
-            throws ArgumentParseException, CooldownActiveException, NotInRangeException;
+     default boolean execute(CommandActor<?> sender, String[] args)
+            throws ArgumentParseException, CooldownActiveException, InvalidUsageException {
+         return execute(sender, args, 0);
+     }
 
-    Object[] setArguments(CommandActor<?> sender, Method m, String[] args, ParsingPredicate predicate)
-            throws ArgumentParseException;
+    /**
+     * Executes the command with the arguments starting at the given offset,
+     * which is where the {@link CommandNode dispatch tree} stopped matching literals.
+     * @param sender the command actor
+     * @param args the arguments, including the subcommand literals
+     * @param offset the index of the first argument of this command
+     * @return true or false, true is returned for errors that "fail successfully" or for successful invocation, else false.
+     * @throws ArgumentParseException when the parsed arguments are invalid.
+     * @throws CooldownActiveException when the cooldown is active
+     * @throws InvalidUsageException when there are too few or too many arguments
+     */
+    default boolean execute(CommandActor<?> sender, String[] args, int offset)
+            throws ArgumentParseException, CooldownActiveException, InvalidUsageException {
+        return execute(sender, CommandLine.of(args), offset);
+    }
+
+    /**
+     * Executes the command with the tokens of the command line starting at the given offset,
+     * which is where the {@link CommandNode dispatch tree} stopped matching literals.
+     * @param sender the command actor
+     * @param line the tokens of the command line, including the subcommand literals
+     * @param offset the index of the first argument of this command
+     * @return true or false, true is returned for errors that "fail successfully" or for successful invocation, else false.
+     * @throws ArgumentParseException when the parsed arguments are invalid.
+     * @throws CooldownActiveException when the cooldown is active
+     * @throws InvalidUsageException when there are too few or too many arguments
+     */
+    boolean execute(CommandActor<?> sender, CommandLine line, int offset)
+            throws ArgumentParseException, CooldownActiveException, InvalidUsageException;
+
+    default Object[] setArguments(CommandActor<?> sender, String[] args)
+            throws ArgumentParseException, InvalidUsageException {
+        return setArguments(sender, CommandLine.of(args), 0);
+    }
+
+    Object[] setArguments(CommandActor<?> sender, CommandLine line, int offset)
+            throws ArgumentParseException, InvalidUsageException;
 
     /**
      * Runs the method made by the user
      *
-     * @param m          the method to run
-     * @param parsedArgs the parsed arguments
-     * @param predicate  extra safe checks for method invocation
+     * @param parsedArgs the parsed arguments, starting with the resolved sender
      * @param actor      the command actor
-     * @return
+     * @return true if the method was invoked, else false.
+     */
+    boolean runMethod(Object[] parsedArgs, CommandActor<?> actor);
+
+    /**
+     * Gets the execution plan which was compiled once when the command was registered.
+     * @return the execution plan
      */
-    boolean runMethod(Method m, Object[] parsedArgs, Predicate<Class<?>> predicate, CommandActor<?> actor);
+    ExecutionPlan getPlan();
 
     /**
      * Gets the info of the command that can and will represent
@@ -98,11 +132,11 @@ public interface ICommand {
      * Wraps {@link ICommand} into {@link CommandImpl}.
      * @param info the info
      * @param manager the command manager
-     * @param object the object
+     * @param plan the execution plan
      * @return the command implementation
      */
     @Contract("_, _, _ -> new")
-    static @NotNull ICommand wrap(CommandInfo info, CommandManager manager, Object object) {
-        return new CommandImpl(manager, info, object);
+    static @NotNull ICommand wrap(CommandInfo info, CommandManager manager, ExecutionPlan plan) {
+        return new CommandImpl(manager, info, plan);
     }
 }
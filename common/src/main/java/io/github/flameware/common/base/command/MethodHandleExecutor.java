@@ -0,0 +1,74 @@
+package io.github.flameware.common.base.command;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The default {@link CommandExecutor} which invokes the command method through a cached {@link MethodHandle}.
+ * <p>
+ * The method is unreflected once and adapted to the uniform <code>(Object, Object[])Object</code> shape,
+ * so {@link MethodHandle#invokeExact(Object...) invokeExact} always matches the call site exactly.
+ * @author FlameyosFlow
+ */
+public final class MethodHandleExecutor implements CommandExecutor {
+    private static final MethodType EXECUTOR_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    /**
+     * The adapted method handles of each class, unreflected only once per method.
+     */
+    private static final ClassValue<ConcurrentMap<Method, MethodHandle>> HANDLES = new ClassValue<>() {
+        @Override
+        protected ConcurrentMap<Method, MethodHandle> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>(8);
+        }
+    };
+
+    private final MethodHandle handle;
+
+    private MethodHandleExecutor(MethodHandle handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * Gets the executor of the method, the method handle is unreflected and adapted only the first time.
+     * @param method the command method
+     * @return the executor
+     */
+    @Contract("_ -> new")
+    public static @NotNull MethodHandleExecutor of(@NotNull Method method) {
+        return new MethodHandleExecutor(HANDLES.get(method.getDeclaringClass()).computeIfAbsent(method, MethodHandleExecutor::adapt));
+    }
+
+    @Override
+    public Object execute(Object instance, Object[] args) throws Throwable {
+        return (Object) handle.invokeExact(instance, args);
+    }
+
+    private static MethodHandle adapt(Method method) {
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.publicLookup().unreflect(method);
+        } catch (IllegalAccessException exception) {
+            // not a public method of a public class, fall back to a suppressed access check
+            method.setAccessible(true);
+            try {
+                handle = MethodHandles.lookup().unreflect(method);
+            } catch (IllegalAccessException e) {
+                throw new IllegalCallerException("Could not access command method " + method.getName() + ":" + method.getDeclaringClass().getSimpleName(), e);
+            }
+        }
+
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        return handle.asSpreader(Object[].class, method.getParameterCount()).asType(EXECUTOR_TYPE);
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.flameware.common.base.cooldown;
+
+import lombok.Data;
+
+/**
+ * A snapshot of the size of a {@link CooldownStore}, to verify it stays bounded on servers which run for a long time.
+ * @author FlameyosFlow
+ */
+@Data
+public final class CooldownStats {
+    /**
+     * The actors with at least one cooldown.
+     */
+    private final int actors;
+    /**
+     * The cooldowns which were not removed yet, including the expired ones which were not read or expired yet.
+     */
+    private final long entries;
+    /**
+     * The cooldowns waiting in the timing wheel, or 0 if the store has none.
+     */
+    private final long scheduledExpiries;
+    /**
+     * The estimated heap used by the store in bytes, this is an approximation which assumes compressed pointers.
+     */
+    private final long estimatedBytes;
+}
@@ -0,0 +1,88 @@
+package io.github.flameware.common.base.cooldown;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * Stores the cooldowns of every actor, keyed by the unique id of the actor and the interned id of the command.
+ * <p>
+ * Implementations must be thread-safe, commands may be executed from several threads at once in ASYNC mode.
+ * <p>
+ * Durations are in nanoseconds of a monotonic clock, so changing the system time never shortens or extends a cooldown.
+ * @author FlameyosFlow
+ * @see InMemoryCooldownStore
+ */
+public interface CooldownStore extends AutoCloseable {
+    /**
+     * Interns the command, called once per command at registration.
+     * @param command the full path of the command, such as {@code "kit give"}
+     * @return the id of the command, the same for the same command
+     */
+    int commandId(@NotNull String command);
+
+    /**
+     * Starts the cooldown of the command for the actor, unless one is already active.
+     * <p>
+     * This checks and starts the cooldown atomically, so two concurrent executions can never both pass.
+     * @param actor the unique id of the actor
+     * @param command the id of the command
+     * @param durationNanos the duration of the cooldown
+     * @return 0 if the cooldown was started, else the remaining nanoseconds of the active cooldown
+     */
+    long tryAcquire(@NotNull UUID actor, int command, long durationNanos);
+
+    /**
+     * Gets the remaining time of the cooldown.
+     * @param actor the unique id of the actor
+     * @param command the id of the command
+     * @return the remaining nanoseconds, or 0 if there is no active cooldown
+     */
+    long getRemaining(@NotNull UUID actor, int command);
+
+    /**
+     * Starts the cooldown of the command for the actor, replacing the active one.
+     * @param actor the unique id of the actor
+     * @param command the id of the command
+     * @param durationNanos the duration of the cooldown
+     */
+    void put(@NotNull UUID actor, int command, long durationNanos);
+
+    /**
+     * Removes the cooldown of the command for the actor.
+     * @param actor the unique id of the actor
+     * @param command the id of the command
+     */
+    void remove(@NotNull UUID actor, int command);
+
+    /**
+     * Removes every cooldown of the actor.
+     * @param actor the unique id of the actor
+     */
+    void clear(@NotNull UUID actor);
+
+    /**
+     * Called when the actor leaves the server, which removes every cooldown of the actor unless the store is persistent.
+     * @param actor the unique id of the actor
+     */
+    default void onQuit(@NotNull UUID actor) {
+        clear(actor);
+    }
+
+    default boolean isActive(@NotNull UUID actor, int command) {
+        return getRemaining(actor, command) > 0;
+    }
+
+    /**
+     * Gets a snapshot of the size of the store.
+     * @return the stats
+     */
+    @NotNull CooldownStats getStats();
+
+    /**
+     * Stops the background work of the store, if any.
+     */
+    @Override
+    default void close() {
+    }
+}
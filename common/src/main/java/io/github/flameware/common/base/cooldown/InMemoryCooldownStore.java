@@ -0,0 +1,220 @@
+package io.github.flameware.common.base.cooldown;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The default {@link CooldownStore}, which keeps the cooldowns on the heap.
+ * <p>
+ * Every actor owns pages of 32 primitive expiries indexed by the command id, only the pages of the commands it used are allocated,
+ * and every slot is updated with a compare-and-set, so there are no locks and no boxing while executing commands.
+ * <p>
+ * Expired cooldowns are removed by a {@link TimingWheel} in the background, or when they are read if that comes first,
+ * and the actor is dropped once its last cooldown is gone, so the store stays bounded by the cooldowns which are really active.
+ * @author FlameyosFlow
+ */
+public final class InMemoryCooldownStore implements CooldownStore {
+    private static final int PAGE_SHIFT = 5;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final long EMPTY = 0L;
+
+    private final ConcurrentMap<UUID, Slots> actors = new ConcurrentHashMap<>(256);
+    private final ConcurrentMap<String, Integer> commandIds = new ConcurrentHashMap<>(64);
+    private final AtomicInteger nextCommandId = new AtomicInteger();
+    /**
+     * Expiries are stored relative to this, so a stored expiry is always positive and 0 can mean empty.
+     */
+    private final long origin = System.nanoTime() - 1;
+    private final LongAdder entries = new LongAdder();
+    private final LongAdder pages = new LongAdder();
+    private final TimingWheel wheel = new TimingWheel(100, TimeUnit.MILLISECONDS, 512, this::now, this::expire);
+
+    @Override
+    public int commandId(@NotNull String command) {
+        return commandIds.computeIfAbsent(command, key -> nextCommandId.getAndIncrement());
+    }
+
+    @Override
+    public long tryAcquire(@NotNull UUID actor, int command, long durationNanos) {
+        long now = now();
+        long expiry = now + durationNanos;
+        Slots slots = retain(actor);
+        AtomicLongArray page = slots.page(command, true);
+        int index = command & (PAGE_SIZE - 1);
+        for (;;) {
+            long current = page.get(index);
+            if (current > now) {
+                release(actor, slots);
+                return current - now;
+            }
+            if (page.compareAndSet(index, current, expiry)) {
+                // an expired slot was already counted
+                if (current != EMPTY) release(actor, slots);
+                else entries.increment();
+                wheel.schedule(actor, command, expiry);
+                return 0L;
+            }
+        }
+    }
+
+    @Override
+    public long getRemaining(@NotNull UUID actor, int command) {
+        Slots slots = actors.get(actor);
+        if (slots == null) return 0L;
+        AtomicLongArray page = slots.page(command, false);
+        if (page == null) return 0L;
+
+        int index = command & (PAGE_SIZE - 1);
+        long current = page.get(index);
+        if (current == EMPTY) return 0L;
+        long remaining = current - now();
+        if (remaining > 0) return remaining;
+        if (page.compareAndSet(index, current, EMPTY)) {
+            entries.decrement();
+            release(actor, slots);
+        }
+        return 0L;
+    }
+
+    @Override
+    public void put(@NotNull UUID actor, int command, long durationNanos) {
+        Slots slots = retain(actor);
+        long expiry = now() + durationNanos;
+        long previous = slots.page(command, true).getAndSet(command & (PAGE_SIZE - 1), expiry);
+        if (previous != EMPTY) release(actor, slots);
+        else entries.increment();
+        wheel.schedule(actor, command, expiry);
+    }
+
+    @Override
+    public void remove(@NotNull UUID actor, int command) {
+        Slots slots = actors.get(actor);
+        if (slots == null) return;
+        AtomicLongArray page = slots.page(command, false);
+        if (page == null) return;
+        if (page.getAndSet(command & (PAGE_SIZE - 1), EMPTY) != EMPTY) {
+            entries.decrement();
+            release(actor, slots);
+        }
+    }
+
+    @Override
+    public void clear(@NotNull UUID actor) {
+        Slots slots = actors.get(actor);
+        if (slots == null) return;
+        // slot by slot, a concurrent execution may still hold a reservation, the last release drops the actor
+        for (AtomicLongArray page : slots.pages) {
+            if (page == null) continue;
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                if (page.get(i) != EMPTY && page.getAndSet(i, EMPTY) != EMPTY) {
+                    entries.decrement();
+                    release(actor, slots);
+                }
+            }
+        }
+    }
+
+    @Override
+    public @NotNull CooldownStats getStats() {
+        int actorCount = actors.size();
+        long pageCount = pages.sum();
+        // the map node, the slots, its counter and page table per actor, then the header and the longs per page
+        long bytes = actorCount * (32L + 24L + 16L + 24L) + pageCount * (16L + 16L + PAGE_SIZE * 8L)
+                + wheel.getScheduledCount() * (24L + 32L);
+        return new CooldownStats(actorCount, entries.sum(), wheel.getScheduledCount(), bytes);
+    }
+
+    @Override
+    public void close() {
+        wheel.close();
+    }
+
+    private void expire(@NotNull UUID actor, int command, long expiry) {
+        Slots slots = actors.get(actor);
+        if (slots == null) return;
+        AtomicLongArray page = slots.page(command, false);
+        if (page != null && page.compareAndSet(command & (PAGE_SIZE - 1), expiry, EMPTY)) {
+            entries.decrement();
+            release(actor, slots);
+        }
+    }
+
+    private long now() {
+        return System.nanoTime() - origin;
+    }
+
+    /**
+     * Reserves a slot of the actor, so the actor cannot be dropped until the reservation is released or filled.
+     */
+    private @NotNull Slots retain(@NotNull UUID actor) {
+        for (;;) {
+            Slots slots = actors.computeIfAbsent(actor, key -> new Slots());
+            if (slots.retain()) return slots;
+            // it is being dropped, wait for the new one
+            Thread.onSpinWait();
+        }
+    }
+
+    private void release(@NotNull UUID actor, @NotNull Slots slots) {
+        if (slots.live.decrementAndGet() == 0 && slots.live.compareAndSet(0, -1) && actors.remove(actor, slots)) {
+            pages.add(-slots.pageCount());
+        }
+    }
+
+    private final class Slots {
+        /**
+         * The slots in use plus the reserved ones, or -1 once the actor was dropped.
+         */
+        private final AtomicInteger live = new AtomicInteger();
+        /**
+         * Copied on write, the pages themselves never move so no update can be lost.
+         */
+        private volatile AtomicLongArray[] pages;
+
+        Slots() {
+            this.pages = new AtomicLongArray[Math.max(1, (nextCommandId.get() + PAGE_SIZE - 1) >>> PAGE_SHIFT)];
+        }
+
+        int pageCount() {
+            int count = 0;
+            for (AtomicLongArray page : pages) {
+                if (page != null) count++;
+            }
+            return count;
+        }
+
+        boolean retain() {
+            for (;;) {
+                int count = live.get();
+                if (count < 0) return false;
+                if (live.compareAndSet(count, count + 1)) return true;
+            }
+        }
+
+        @Nullable AtomicLongArray page(int command, boolean create) {
+            int index = command >>> PAGE_SHIFT;
+            AtomicLongArray[] pages = this.pages;
+            AtomicLongArray page = index < pages.length ? pages[index] : null;
+            if (page != null || !create) return page;
+
+            synchronized (this) {
+                pages = this.pages;
+                if (index < pages.length && pages[index] != null) return pages[index];
+                pages = Arrays.copyOf(pages, Math.max(pages.length, index + 1));
+                page = pages[index] = new AtomicLongArray(PAGE_SIZE);
+                InMemoryCooldownStore.this.pages.increment();
+                this.pages = pages;
+                return page;
+            }
+        }
+    }
+}
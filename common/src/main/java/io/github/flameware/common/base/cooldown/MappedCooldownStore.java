@@ -0,0 +1,348 @@
+package io.github.flameware.common.base.cooldown;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link CooldownStore} which survives restarts, for long cooldowns such as daily kits.
+ * <p>
+ * The cooldowns are kept by an {@link InMemoryCooldownStore}, and every change is appended to a memory-mapped file
+ * as a fixed-size binary record, so writing one costs a few memory stores and reloading is a single pass over the mapping.
+ * <p>
+ * The change of a cooldown and its record are made under a lock of the actor, so the file always replays to what the memory holds.
+ * <p>
+ * The file is compacted in the background, every compaction interval, once most of its records are stale.
+ * <p>
+ * Expiries are written as wall-clock epoch nanoseconds since the monotonic clock does not survive restarts,
+ * they are converted back to the monotonic clock when the file is loaded.
+ * <p>
+ * The ids of the commands are kept in order, one per line, in a {@code .commands} file next to the store.
+ * @author FlameyosFlow
+ */
+public final class MappedCooldownStore implements CooldownStore {
+    private static final int MAGIC = 0x46574344; // FWCD
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    /**
+     * The UUID, the expiry, the command id and the record magic, which is written last and marks the end of the log when absent.
+     */
+    private static final int RECORD_SIZE = 32;
+    private static final int RECORD_MAGIC = 0x52454331; // REC1
+    private static final int ALL_COMMANDS = -1;
+    private static final long REMOVED = 0L;
+    private static final int INITIAL_RECORDS = 32768;
+    private static final int LOCKS = 64;
+
+    private static final Logger LOGGER = Logger.getLogger("FlameWare");
+
+    private final Path file;
+    private final Path dictionary;
+    private final InMemoryCooldownStore delegate = new InMemoryCooldownStore();
+    private final List<String> commands = new ArrayList<>(64);
+    private final ScheduledExecutorService compactor;
+    private final Object compactionLock = new Object();
+    private final Object[] actorLocks = new Object[LOCKS];
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position;
+
+    private MappedCooldownStore(@NotNull Path file, long compactionInterval, @NotNull TimeUnit unit) throws IOException {
+        this.file = file;
+        this.dictionary = file.resolveSibling(file.getFileName() + ".commands");
+        for (int i = 0; i < LOCKS; i++) {
+            actorLocks[i] = new Object();
+        }
+        if (Files.exists(dictionary)) {
+            for (String command : Files.readAllLines(dictionary, StandardCharsets.UTF_8)) {
+                commands.add(command);
+                delegate.commandId(command);
+            }
+        }
+
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), HEADER_SIZE + (long) RECORD_SIZE * INITIAL_RECORDS));
+        int magic = buffer.getInt(0);
+        if (magic == 0) {
+            buffer.putInt(0, MAGIC).putInt(4, VERSION);
+        } else if (magic != MAGIC || buffer.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException(file + " is not a FlameWare cooldown store");
+        }
+        this.position = load();
+
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FlameWare Cooldown Compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(this::compactIfStale, compactionInterval, compactionInterval, unit);
+    }
+
+    /**
+     * Opens the store, or creates it if the file does not exist, compacting it every 5 minutes.
+     * @param file the file of the store
+     * @return the store with the cooldowns which are still active
+     * @throws IOException when the file cannot be mapped or is not a cooldown store
+     */
+    public static @NotNull MappedCooldownStore open(@NotNull Path file) throws IOException {
+        return open(file, 5, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Opens the store, or creates it if the file does not exist.
+     * @param file the file of the store
+     * @param compactionInterval how often to check whether the file should be compacted
+     * @param unit the unit of the interval
+     * @return the store with the cooldowns which are still active
+     * @throws IOException when the file cannot be mapped or is not a cooldown store
+     */
+    public static @NotNull MappedCooldownStore open(@NotNull Path file, long compactionInterval, @NotNull TimeUnit unit) throws IOException {
+        return new MappedCooldownStore(file, compactionInterval, unit);
+    }
+
+    @Override
+    public synchronized int commandId(@NotNull String command) {
+        int id = delegate.commandId(command);
+        if (id == commands.size()) {
+            commands.add(command);
+            try {
+                Files.write(dictionary, List.of(command), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+        return id;
+    }
+
+    @Override
+    public long tryAcquire(@NotNull UUID actor, int command, long durationNanos) {
+        synchronized (lock(actor)) {
+            long remaining = delegate.tryAcquire(actor, command, durationNanos);
+            if (remaining == 0) append(actor, command, wallClock() + durationNanos);
+            return remaining;
+        }
+    }
+
+    @Override
+    public long getRemaining(@NotNull UUID actor, int command) {
+        return delegate.getRemaining(actor, command);
+    }
+
+    @Override
+    public void put(@NotNull UUID actor, int command, long durationNanos) {
+        synchronized (lock(actor)) {
+            delegate.put(actor, command, durationNanos);
+            append(actor, command, wallClock() + durationNanos);
+        }
+    }
+
+    @Override
+    public void remove(@NotNull UUID actor, int command) {
+        synchronized (lock(actor)) {
+            delegate.remove(actor, command);
+            append(actor, command, REMOVED);
+        }
+    }
+
+    @Override
+    public void clear(@NotNull UUID actor) {
+        synchronized (lock(actor)) {
+            delegate.clear(actor);
+            append(actor, ALL_COMMANDS, REMOVED);
+        }
+    }
+
+    /**
+     * Keeps the cooldowns of the actor, they are persistent after all, the timing wheel still removes them when they expire.
+     * @param actor the unique id of the actor
+     */
+    @Override
+    public void onQuit(@NotNull UUID actor) {
+    }
+
+    @Override
+    public @NotNull CooldownStats getStats() {
+        return delegate.getStats();
+    }
+
+    /**
+     * Gets how many records the file holds, including the stale ones which the next compaction drops.
+     * @return the amount of records
+     */
+    public synchronized int getRecordCount() {
+        return (position - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    /**
+     * Rewrites the file with only the cooldowns which are still active.
+     * <p>
+     * The old records are read without blocking the writers, only the records appended meanwhile and the swap are done under the lock.
+     * @throws IOException when the compacted file cannot be written
+     */
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            MappedByteBuffer buffer;
+            int end;
+            synchronized (this) {
+                buffer = this.buffer;
+                end = position;
+            }
+
+            Map<UUID, Map<Integer, Long>> live = new HashMap<>(1024);
+            replay(buffer, HEADER_SIZE, end, live);
+
+            synchronized (this) {
+                replay(this.buffer, end, position, live);
+                long now = wallClock();
+                int count = 0;
+                for (Map<Integer, Long> expiries : live.values()) {
+                    expiries.values().removeIf(expiry -> expiry <= now);
+                    count += expiries.size();
+                }
+
+                Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+                FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+                MappedByteBuffer compacted = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                        HEADER_SIZE + (long) RECORD_SIZE * Math.max(INITIAL_RECORDS, count * 2));
+                compacted.putInt(0, MAGIC).putInt(4, VERSION);
+                int position = HEADER_SIZE;
+                for (Map.Entry<UUID, Map<Integer, Long>> actor : live.entrySet()) {
+                    for (Map.Entry<Integer, Long> expiry : actor.getValue().entrySet()) {
+                        write(compacted, position, actor.getKey(), expiry.getKey(), expiry.getValue());
+                        position += RECORD_SIZE;
+                    }
+                }
+                compacted.force();
+
+                try {
+                    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException exception) {
+                    // mapped files cannot be replaced on some platforms, keep appending to the old one
+                    channel.close();
+                    Files.deleteIfExists(temporary);
+                    throw exception;
+                }
+                this.channel.close();
+                this.channel = channel;
+                this.buffer = compacted;
+                this.position = position;
+            }
+        }
+    }
+
+    /**
+     * Stops the compaction and the expiry of the cooldowns, then flushes the file.
+     * <p>
+     * A compaction which is running is waited for, so the file it swapped in is the one which is closed.
+     */
+    @Override
+    public void close() {
+        compactor.shutdown();
+        delegate.close();
+        synchronized (compactionLock) {
+            synchronized (this) {
+                try {
+                    buffer.force();
+                    channel.close();
+                } catch (IOException exception) {
+                    LOGGER.log(Level.WARNING, "Could not close the cooldown store " + file, exception);
+                }
+            }
+        }
+    }
+
+    private void compactIfStale() {
+        // compact once at least half of the records are stale
+        if (getRecordCount() <= Math.max(1024, delegate.getStats().getEntries() * 2)) return;
+        try {
+            compact();
+        } catch (IOException exception) {
+            LOGGER.log(Level.WARNING, "Could not compact the cooldown store " + file, exception);
+        }
+    }
+
+    private int load() {
+        long wallNow = wallClock();
+        int position = HEADER_SIZE;
+        int limit = buffer.capacity() - RECORD_SIZE;
+        while (position <= limit && buffer.getInt(position + 28) == RECORD_MAGIC) {
+            UUID actor = new UUID(buffer.getLong(position), buffer.getLong(position + 8));
+            long expiry = buffer.getLong(position + 16);
+            int command = buffer.getInt(position + 24);
+            if (command == ALL_COMMANDS) {
+                delegate.clear(actor);
+            } else if (expiry > wallNow) {
+                delegate.put(actor, command, expiry - wallNow);
+            } else {
+                delegate.remove(actor, command);
+            }
+            position += RECORD_SIZE;
+        }
+        return position;
+    }
+
+    private static void replay(MappedByteBuffer buffer, int from, int to, Map<UUID, Map<Integer, Long>> live) {
+        for (int position = from; position < to; position += RECORD_SIZE) {
+            UUID actor = new UUID(buffer.getLong(position), buffer.getLong(position + 8));
+            long expiry = buffer.getLong(position + 16);
+            int command = buffer.getInt(position + 24);
+            if (command == ALL_COMMANDS) {
+                live.remove(actor);
+            } else if (expiry == REMOVED) {
+                Map<Integer, Long> expiries = live.get(actor);
+                if (expiries != null) expiries.remove(command);
+            } else {
+                live.computeIfAbsent(actor, key -> new HashMap<>(8)).put(command, expiry);
+            }
+        }
+    }
+
+    private Object lock(@NotNull UUID actor) {
+        int hash = actor.hashCode();
+        return actorLocks[(hash ^ (hash >>> 16)) & (LOCKS - 1)];
+    }
+
+    private synchronized void append(@NotNull UUID actor, int command, long expiry) {
+        if (position + RECORD_SIZE > buffer.capacity()) {
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, buffer.capacity() * 2L);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+        write(buffer, position, actor, command, expiry);
+        position += RECORD_SIZE;
+    }
+
+    private static void write(MappedByteBuffer buffer, int position, UUID actor, int command, long expiry) {
+        buffer.putLong(position, actor.getMostSignificantBits())
+                .putLong(position + 8, actor.getLeastSignificantBits())
+                .putLong(position + 16, expiry)
+                .putInt(position + 24, command)
+                .putInt(position + 28, RECORD_MAGIC);
+    }
+
+    private static long wallClock() {
+        return TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+    }
+}
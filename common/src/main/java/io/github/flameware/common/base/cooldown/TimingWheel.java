@@ -0,0 +1,155 @@
+package io.github.flameware.common.base.cooldown;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A hashed timing wheel which expires the cooldowns in the background, at an amortized O(1) cost per cooldown.
+ * <p>
+ * Scheduling only appends to a lock-free queue, the wheel itself is only touched by its ticker thread,
+ * which is a daemon started with the first scheduled cooldown.
+ * <p>
+ * Expiring is best effort and may be late by a tick, stores must still treat an expired cooldown as absent when reading it.
+ * @author FlameyosFlow
+ */
+public final class TimingWheel implements AutoCloseable {
+    private final long tickNanos;
+    private final int mask;
+    private final Queue<Timeout>[] buckets;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong scheduled = new AtomicLong();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean closed;
+    private final LongSupplier clock;
+    private final ExpiryListener listener;
+    private final long start;
+    private long tick;
+    private volatile ScheduledExecutorService ticker;
+
+    /**
+     * Creates the timing wheel.
+     * @param tick the duration of a tick
+     * @param unit the unit of the tick
+     * @param wheelSize the amount of buckets, rounded up to a power of two
+     * @param clock the clock of the expiries, in nanoseconds
+     * @param listener called on the ticker thread for every expired cooldown
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public TimingWheel(long tick, @NotNull TimeUnit unit, int wheelSize, @NotNull LongSupplier clock, @NotNull ExpiryListener listener) {
+        this.tickNanos = unit.toNanos(tick);
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.mask = size - 1;
+        this.buckets = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.clock = clock;
+        this.listener = listener;
+        this.start = clock.getAsLong();
+    }
+
+    /**
+     * Schedules the cooldown to expire, unless the wheel is closed.
+     * @param actor the unique id of the actor
+     * @param command the id of the command
+     * @param expiry when the cooldown expires, on the clock of the wheel
+     */
+    public void schedule(@NotNull UUID actor, int command, long expiry) {
+        // nothing drains the queue anymore
+        if (closed) return;
+        if (!started.get() && started.compareAndSet(false, true)) {
+            ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "FlameWare Cooldown Expiry");
+                thread.setDaemon(true);
+                return thread;
+            });
+            ticker.scheduleAtFixedRate(this::advance, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+            this.ticker = ticker;
+            // closed while starting
+            if (closed) ticker.shutdownNow();
+        }
+        scheduled.incrementAndGet();
+        pending.add(new Timeout(actor, command, expiry));
+    }
+
+    /**
+     * Gets how many cooldowns are waiting to expire, including the ones whose cooldown was removed or restarted since.
+     * @return the amount of scheduled cooldowns
+     */
+    public long getScheduledCount() {
+        return scheduled.get();
+    }
+
+    private void advance() {
+        long now = clock.getAsLong();
+        long target = (now - start) / tickNanos;
+        for (Timeout timeout; (timeout = pending.poll()) != null; ) {
+            long deadline = Math.max((timeout.expiry - start + tickNanos - 1) / tickNanos, tick);
+            timeout.rounds = (deadline - tick) >> Integer.numberOfTrailingZeros(mask + 1);
+            buckets[(int) (deadline & mask)].add(timeout);
+        }
+
+        // catch up if the ticker was late, but never go around more than once
+        for (long last = Math.min(target, tick + mask); tick <= last; tick++) {
+            expire(buckets[(int) (tick & mask)], now);
+        }
+    }
+
+    private void expire(Queue<Timeout> bucket, long now) {
+        for (int i = bucket.size(); i > 0; i--) {
+            Timeout timeout = bucket.poll();
+            if (timeout.rounds > 0 || timeout.expiry > now) {
+                timeout.rounds--;
+                bucket.add(timeout);
+                continue;
+            }
+            scheduled.decrementAndGet();
+            listener.expire(timeout.actor, timeout.command, timeout.expiry);
+        }
+    }
+
+    /**
+     * Stops the ticker thread, the scheduled cooldowns are then only expired when read and new ones are ignored.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        ScheduledExecutorService ticker = this.ticker;
+        if (ticker != null) ticker.shutdownNow();
+        pending.clear();
+    }
+
+    @FunctionalInterface
+    public interface ExpiryListener {
+        /**
+         * Expires the cooldown, unless it was restarted with another expiry since.
+         * @param actor the unique id of the actor
+         * @param command the id of the command
+         * @param expiry the expiry that was scheduled
+         */
+        void expire(@NotNull UUID actor, int command, long expiry);
+    }
+
+    private static final class Timeout {
+        private final UUID actor;
+        private final int command;
+        private final long expiry;
+        private long rounds;
+
+        Timeout(UUID actor, int command, long expiry) {
+            this.actor = actor;
+            this.command = command;
+            this.expiry = expiry;
+        }
+    }
+}
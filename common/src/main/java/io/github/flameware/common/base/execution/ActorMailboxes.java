@@ -0,0 +1,221 @@
+package io.github.flameware.common.base.execution;
+
+import lombok.Getter;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs the asynchronous commands of each actor one at a time and in order, while different actors run in parallel.
+ * <p>
+ * Each actor has a mailbox which only exists while it has commands, holding at most {@link #getDepth()} commands
+ * waiting to run, what happens beyond that is decided by the {@link OverflowPolicy}.
+ * <p>
+ * A mailbox hands a single command at a time to the executor, so a spamming actor never holds more than one thread.
+ * @author FlameyosFlow
+ */
+public final class ActorMailboxes {
+    private final ConcurrentMap<UUID, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    @Getter
+    private final int depth;
+    @Getter
+    private final @NotNull OverflowPolicy policy;
+    private final LongAdder rejected = new LongAdder(), dropped = new LongAdder(), coalesced = new LongAdder();
+
+    /**
+     * Creates the mailboxes.
+     * @param depth how many commands of an actor may wait while one of them runs, 0 lets only the running one in
+     * @param policy what to do with the commands beyond that
+     */
+    public ActorMailboxes(int depth, @NotNull OverflowPolicy policy) {
+        if (depth < 0) throw new IllegalArgumentException("The depth of the mailboxes cannot be negative");
+        this.depth = depth;
+        this.policy = policy;
+    }
+
+    /**
+     * Queues the task in the mailbox of the actor, it runs on the executor once the previous tasks of the actor are done.
+     * @param actor the unique id of the actor
+     * @param key identifies the command, tasks of the same command are merged by {@link OverflowPolicy#COALESCE}
+     * @param task the task
+     * @param executor the executor of the task
+     * @param <T> the result of the task
+     * @return the result of the task, cancelled if {@link OverflowPolicy#DROP_OLDEST dropped}
+     * @throws RejectedExecutionException if the mailbox of the actor is full
+     */
+    @SuppressWarnings("unchecked")
+    public <T> @NotNull CompletableFuture<T> submit(@NotNull UUID actor, @NotNull Object key,
+                                                    @NotNull Supplier<T> task, @NotNull Executor executor) {
+        Task<T> message = new Task<>(key, task, executor);
+        for (;;) {
+            Mailbox mailbox = mailboxes.computeIfAbsent(actor, Mailbox::new);
+            Task<?> result;
+            synchronized (mailbox) {
+                // the mailbox was drained and removed meanwhile, get a new one
+                if (mailbox.closed) continue;
+                result = mailbox.offer(message);
+            }
+            if (result == message && mailbox.start()) mailbox.next();
+            return (CompletableFuture<T>) result.future;
+        }
+    }
+
+    /**
+     * Gets how many actors have commands running or waiting.
+     * @return the amount of mailboxes
+     */
+    public int getActiveMailboxes() {
+        return mailboxes.size();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    private final class Mailbox {
+        private final UUID actor;
+        private final ArrayDeque<Task<?>> queue = new ArrayDeque<>(4);
+        private boolean running, closed;
+
+        Mailbox(UUID actor) {
+            this.actor = actor;
+        }
+
+        /**
+         * Queues the task, or returns the queued task it was merged into.
+         */
+        Task<?> offer(Task<?> task) {
+            // the tasks which would wait once this one is queued, the head of a mailbox which is not running yet is about to run
+            int waiting = running ? queue.size() + 1 : queue.size();
+            if (waiting > depth) {
+                switch (policy) {
+                    case DROP_OLDEST: {
+                        Task<?> oldest = queue.poll();
+                        if (oldest == null) break;
+                        dropped.increment();
+                        oldest.future.completeExceptionally(new CancellationException("Dropped for a newer command"));
+                        queue.add(task);
+                        return task;
+                    }
+                    case COALESCE: {
+                        Task<?> queued = find(task.key);
+                        if (queued != null) return merge(queued, task);
+                        break;
+                    }
+                    default:
+                        break;
+                }
+                rejected.increment();
+                throw new RejectedExecutionException("The mailbox of " + actor + " is full");
+            }
+
+            if (policy == OverflowPolicy.COALESCE) {
+                Task<?> queued = find(task.key);
+                if (queued != null) return merge(queued, task);
+            }
+            queue.add(task);
+            return task;
+        }
+
+        private Task<?> find(Object key) {
+            for (Iterator<Task<?>> iterator = queue.descendingIterator(); iterator.hasNext(); ) {
+                Task<?> queued = iterator.next();
+                if (queued.key.equals(key)) return queued;
+            }
+            return null;
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private Task<?> merge(Task queued, Task task) {
+            coalesced.increment();
+            queued.supplier = task.supplier;
+            return queued;
+        }
+
+        /**
+         * Marks the mailbox as running, only the first caller gets to start it.
+         */
+        synchronized boolean start() {
+            if (running) return false;
+            running = true;
+            return true;
+        }
+
+        /**
+         * Hands the next task to its executor, or removes the mailbox once it is empty.
+         */
+        void next() {
+            Task<?> task;
+            synchronized (this) {
+                task = queue.poll();
+                if (task == null) {
+                    running = false;
+                    closed = true;
+                    mailboxes.remove(actor, this);
+                    return;
+                }
+            }
+
+            try {
+                task.executor.execute(new RejectableTask() {
+                    @Override
+                    public void run() {
+                        task.run();
+                        next();
+                    }
+
+                    @Override
+                    public void reject(@NotNull RejectedExecutionException exception) {
+                        // refused by the executor once a bulkhead got to it
+                        task.future.completeExceptionally(exception);
+                        next();
+                    }
+                });
+            } catch (RejectedExecutionException exception) {
+                task.future.completeExceptionally(exception);
+                next();
+            }
+        }
+    }
+
+    private static final class Task<T> {
+        private final Object key;
+        private final Executor executor;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private volatile Supplier<T> supplier;
+
+        Task(Object key, Supplier<T> supplier, Executor executor) {
+            this.key = key;
+            this.supplier = supplier;
+            this.executor = executor;
+        }
+
+        void run() {
+            if (future.isDone()) return;
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package io.github.flameware.common.base.execution;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Limits how many asynchronous commands of a command, or of a group of commands, run at once,
+ * so a slow command cannot take every thread of the executor.
+ * <p>
+ * Commands beyond the limit wait in a bounded queue, and are rejected once it is full.
+ * A queued {@link RejectableTask} which the executor refuses later on is {@link RejectableTask#reject rejected},
+ * any other queued task is dropped, it is never run on the thread which happened to release the permit.
+ * <p>
+ * It is lock-free: permits are taken with a compare-and-set, and a finishing command hands its permit straight to the next waiting one.
+ * @author FlameyosFlow
+ * @see io.github.flameware.common.annotations.Bulkhead
+ */
+public final class Bulkhead {
+    private static final Logger LOGGER = Logger.getLogger("FlameWare");
+
+    private final int maxConcurrent, maxQueued;
+    private final AtomicInteger inFlight = new AtomicInteger(), queued = new AtomicInteger();
+    private final Queue<Task> queue = new ConcurrentLinkedQueue<>();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates the bulkhead.
+     * @param maxConcurrent how many commands may run at once
+     * @param maxQueued how many commands may wait for them
+     */
+    public Bulkhead(int maxConcurrent, int maxQueued) {
+        if (maxConcurrent < 1) throw new IllegalArgumentException("A bulkhead must let at least one command run");
+        if (maxQueued < 0) throw new IllegalArgumentException("The queue of a bulkhead cannot be negative");
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * Wraps the executor, so the tasks given to it go through this bulkhead.
+     * @param executor the executor running the tasks
+     * @return the executor, which throws {@link RejectedExecutionException} once the queue is full
+     */
+    public @NotNull Executor limit(@NotNull Executor executor) {
+        return command -> execute(command, executor);
+    }
+
+    /**
+     * Runs the task on the executor if a permit is free, else queues it.
+     * @param command the task
+     * @param executor the executor running it
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public void execute(@NotNull Runnable command, @NotNull Executor executor) {
+        Task task = new Task(command, executor);
+        if (tryAcquire()) {
+            start(task);
+            return;
+        }
+
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw new RejectedExecutionException("The bulkhead is full");
+        }
+        queue.add(task);
+        // every permit may have been released while queueing
+        if (tryAcquire()) next();
+    }
+
+    private boolean tryAcquire() {
+        for (int current = inFlight.get(); current < maxConcurrent; current = inFlight.get()) {
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+        return false;
+    }
+
+    private void start(Task task) {
+        try {
+            task.executor.execute(() -> {
+                try {
+                    task.command.run();
+                } finally {
+                    next();
+                }
+            });
+        } catch (RuntimeException exception) {
+            next();
+            throw exception;
+        }
+    }
+
+    /**
+     * Hands the held permit to the next queued task, or releases it.
+     */
+    private void next() {
+        for (;;) {
+            Task task = queue.poll();
+            if (task != null) {
+                queued.decrementAndGet();
+                try {
+                    start(task);
+                } catch (RuntimeException exception) {
+                    // the executor refused it, the permit was already passed on
+                    rejected.increment();
+                    reject(task.command, exception);
+                }
+                return;
+            }
+
+            inFlight.decrementAndGet();
+            // a task may have been queued after polling, take the permit back for it if nobody else does
+            if (queue.isEmpty() || !tryAcquire()) return;
+        }
+    }
+
+    /**
+     * Tells the queued task that it will never run, so its future completes, a task which cannot be told is dropped.
+     */
+    private static void reject(Runnable command, RuntimeException exception) {
+        if (command instanceof RejectableTask) {
+            ((RejectableTask) command).reject(exception instanceof RejectedExecutionException
+                    ? (RejectedExecutionException) exception : new RejectedExecutionException(exception));
+            return;
+        }
+        // running it here could block the submitter, even the main thread, which is what the bulkhead isolates it from
+        LOGGER.log(Level.WARNING, "A queued task was dropped because the executor rejected it", exception);
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    /**
+     * Gets how many commands are running.
+     * @return the amount of commands
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Gets how many commands wait for a permit.
+     * @return the amount of commands
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * Gets how many commands were rejected since the bulkhead was created.
+     * @return the amount of commands
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private static final class Task {
+        private final Runnable command;
+        private final Executor executor;
+
+        Task(Runnable command, Executor executor) {
+            this.command = command;
+            this.executor = executor;
+        }
+    }
+}
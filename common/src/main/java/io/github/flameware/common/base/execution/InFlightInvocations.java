@@ -0,0 +1,109 @@
+package io.github.flameware.common.base.execution;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The asynchronous invocations which are running, so an identical invocation attaches to the running one instead of running again.
+ * <p>
+ * Invocations are identical when they come from the same actor, for the same command, with equal parsed arguments.
+ * An invocation is forgotten as soon as it completes, results are never cached.
+ * @author FlameyosFlow
+ * @see io.github.flameware.common.annotations.Coalesce
+ */
+public final class InFlightInvocations {
+    private final ConcurrentMap<Key, CompletableFuture<Object>> running = new ConcurrentHashMap<>();
+    private final LongAdder saved = new LongAdder();
+
+    /**
+     * Starts the invocation, unless an identical one is running.
+     * @param actor the unique id of the actor
+     * @param command identifies the command, such as its execution plan
+     * @param args the resolved sender followed by the parsed arguments, the sender is not compared
+     * @param invocation starts the invocation
+     * @return the result of the invocation, or of the identical one which was running
+     */
+    public @NotNull CompletableFuture<Object> invoke(@NotNull UUID actor, @NotNull Object command, Object @NotNull [] args,
+                                                     @NotNull Supplier<CompletableFuture<Object>> invocation) {
+        Key key = new Key(actor, command, args);
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        CompletableFuture<Object> existing = running.putIfAbsent(key, pending);
+        if (existing != null) {
+            saved.increment();
+            // a copy, so cancelling it does not cancel the other callers
+            return existing.copy();
+        }
+
+        CompletableFuture<Object> future;
+        try {
+            future = invocation.get();
+        } catch (RuntimeException exception) {
+            running.remove(key, pending);
+            pending.completeExceptionally(exception);
+            throw exception;
+        }
+        future.whenComplete((result, throwable) -> {
+            // forget it first, so the invocations completing it cannot attach to it anymore
+            running.remove(key, pending);
+            if (throwable != null) pending.completeExceptionally(throwable);
+            else pending.complete(result);
+        });
+        return pending.copy();
+    }
+
+    /**
+     * Gets how many invocations were attached to a running one instead of running again.
+     * @return the amount of saved executions
+     */
+    public long getSavedExecutions() {
+        return saved.sum();
+    }
+
+    /**
+     * Gets how many invocations are running.
+     * @return the amount of invocations
+     */
+    public int getRunningCount() {
+        return running.size();
+    }
+
+    private static final class Key {
+        private final UUID actor;
+        private final Object command;
+        private final Object[] args;
+        private final int hash;
+
+        Key(UUID actor, Object command, Object[] args) {
+            this.actor = actor;
+            this.command = command;
+            this.args = args;
+            int hash = actor.hashCode() * 31 + command.hashCode();
+            for (int i = 1; i < args.length; i++) {
+                hash = hash * 31 + (args[i] == null ? 0 : args[i].hashCode());
+            }
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) return true;
+            if (!(object instanceof Key)) return false;
+            Key other = (Key) object;
+            // the sender is skipped, it may be a new wrapper of the same actor every time
+            return hash == other.hash && actor.equals(other.actor) && command.equals(other.command)
+                    && Arrays.equals(args, 1, args.length, other.args, 1, other.args.length);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.flameware.common.base.execution;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs tasks on the main thread of the platform, such as the server thread of Bukkit.
+ * <p>
+ * Commands returning a {@link java.util.concurrent.CompletionStage CompletionStage} get their result delivered on it,
+ * and may use it themselves to go back to the main thread, for example with {@code thenAcceptAsync(..., executor)}.
+ * @author FlameyosFlow
+ */
+public interface MainThreadExecutor extends Executor {
+    /**
+     * Runs tasks right away on the calling thread, for platforms without a main thread.
+     */
+    MainThreadExecutor DIRECT = new MainThreadExecutor() {
+        @Override
+        public void execute(@NotNull Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public boolean isMainThread() {
+            return true;
+        }
+    };
+
+    /**
+     * Checks whether the calling thread is the main thread, so tasks can run right away.
+     * @return true on the main thread
+     */
+    boolean isMainThread();
+}
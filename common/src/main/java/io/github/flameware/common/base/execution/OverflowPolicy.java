@@ -0,0 +1,22 @@
+package io.github.flameware.common.base.execution;
+
+/**
+ * What an {@link ActorMailboxes actor mailbox} does with a command when it is full.
+ * @author FlameyosFlow
+ */
+public enum OverflowPolicy {
+    /**
+     * Refuses the new command, the actor is told to slow down.
+     */
+    REJECT,
+    /**
+     * Drops the oldest command which did not start yet to make room for the new one.
+     */
+    DROP_OLDEST,
+    /**
+     * Merges the new command into a queued invocation of the same command, which then runs with the newest arguments.
+     * <p>
+     * Commands are only rejected when the mailbox is full of other commands.
+     */
+    COALESCE
+}
@@ -0,0 +1,52 @@
+package io.github.flameware.common.base.execution;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * A task which is told when it is rejected after it was accepted, such as a task queued by a {@link Bulkhead}
+ * which the executor refuses once a permit is free, so whoever waits for it is not left hanging.
+ * @author FlameyosFlow
+ */
+public interface RejectableTask extends Runnable {
+    /**
+     * Called instead of {@link #run()} when the task will never run.
+     * @param exception why it was rejected
+     */
+    void reject(@NotNull RejectedExecutionException exception);
+
+    /**
+     * Like {@link CompletableFuture#supplyAsync(Supplier, Executor)}, but the future also completes with the
+     * {@link RejectedExecutionException} when the executor rejects the task after accepting it.
+     * @param supplier the task
+     * @param executor the executor of the task
+     * @param <T> the result of the task
+     * @return the result of the task
+     * @throws RejectedExecutionException if the executor rejects the task right away
+     */
+    static <T> @NotNull CompletableFuture<T> supply(@NotNull Supplier<T> supplier, @NotNull Executor executor) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(new RejectableTask() {
+            @Override
+            public void run() {
+                if (future.isDone()) return;
+                try {
+                    future.complete(supplier.get());
+                } catch (Throwable throwable) {
+                    future.completeExceptionally(throwable instanceof CompletionException ? throwable : new CompletionException(throwable));
+                }
+            }
+
+            @Override
+            public void reject(@NotNull RejectedExecutionException exception) {
+                future.completeExceptionally(exception);
+            }
+        });
+        return future;
+    }
+}
@@ -1,12 +1,34 @@
 package io.github.flameware.common.base.manager;
 
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import io.github.flameware.common.AsyncExecutors;
 import io.github.flameware.common.CommandExecutionType;
+import io.github.flameware.common.ExecutorBackend;
 import io.github.flameware.common.annotations.Async;
+import io.github.flameware.common.annotations.Coalesce;
 import io.github.flameware.common.annotations.Cooldown;
+import io.github.flameware.common.annotations.Subcommand;
+import io.github.flameware.common.annotations.Timeout;
 import io.github.flameware.common.base.arguments.BaseArgumentHandler;
 import io.github.flameware.common.base.arguments.ArgumentSuggestionRegistry;
+import io.github.flameware.common.base.arguments.ParameterPlan;
+import io.github.flameware.common.base.audit.CommandAuditLog;
+import io.github.flameware.common.base.command.CommandExecutor;
+import io.github.flameware.common.base.command.CommandInfo;
+import io.github.flameware.common.base.command.CommandNode;
+import io.github.flameware.common.base.command.ExecutionPlan;
+import io.github.flameware.common.base.command.GeneratedExecutor;
 import io.github.flameware.common.base.command.ICommand;
+import io.github.flameware.common.base.command.MethodHandleExecutor;
+import io.github.flameware.common.base.cooldown.CooldownStore;
+import io.github.flameware.common.base.cooldown.InMemoryCooldownStore;
+import io.github.flameware.common.base.execution.ActorMailboxes;
+import io.github.flameware.common.base.execution.Bulkhead;
+import io.github.flameware.common.base.execution.InFlightInvocations;
+import io.github.flameware.common.base.execution.MainThreadExecutor;
+import io.github.flameware.common.base.execution.RejectableTask;
+import io.github.flameware.common.sender.CommandActor;
+import io.github.flameware.common.sender.SenderResolver;
 
 import lombok.Getter;
 
@@ -14,12 +36,22 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -36,10 +68,30 @@ public abstract class AbstractCommandManager<P> implements CommandManager {
     protected final P plugin;
     protected final Logger logger;
     protected final ConcurrentMap<String, ICommand> commands;
+    protected final CommandNode commandTree;
     protected boolean log,allowCooldownsForConsole = false;
     private final CommandExecutionType commandExecutionType;
+    private ExecutorBackend executorBackend = ExecutorBackend.getDefault();
     //private final Set<SenderFactory<?>> senderFactorySet;
-    private final Map<String, Map<String, Long>> cooldownMap;
+    private CooldownStore cooldownStore;
+    /**
+     * The executor of asynchronous commands, which only starts threads once a command runs on it.
+     */
+    private volatile Executor asyncExecutor;
+    /**
+     * The default executor created by the manager, shut down when replaced or when the manager is closed, null once it was.
+     */
+    private volatile ExecutorService ownedExecutor;
+    private final ConcurrentMap<String, Executor> executors = new ConcurrentHashMap<>();
+    /**
+     * Orders the asynchronous commands of each actor, null to run them all in parallel.
+     */
+    private volatile ActorMailboxes actorMailboxes;
+    private volatile MainThreadExecutor mainThreadExecutor = MainThreadExecutor.DIRECT;
+    private final ConcurrentMap<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final InFlightInvocations inFlightInvocations = new InFlightInvocations();
+    private volatile CommandAuditLog auditLog;
+    private final ConcurrentMap<Class<?>, SenderResolver> senderResolvers;
     protected final BaseArgumentHandler argumentHandler;
     protected final ArgumentSuggestionRegistry suggestionRegistry;
 
@@ -47,10 +99,14 @@ public abstract class AbstractCommandManager<P> implements CommandManager {
         this.plugin = plugin;
         this.commandExecutionType = commandExecutionType;
         this.commands = new ConcurrentHashMap<>(754);
-        this.cooldownMap = new HashMap<>(1024);
+        this.commandTree = CommandNode.root();
+        this.cooldownStore = new InMemoryCooldownStore();
+        this.senderResolvers = new ConcurrentHashMap<>(10);
         this.argumentHandler = new BaseArgumentHandler();
         this.suggestionRegistry = new ArgumentSuggestionRegistry(this);
         this.logger = Logger.getLogger("FlameWare");
+        this.ownedExecutor = defaultExecutor(commandExecutionType, logger);
+        this.asyncExecutor = ownedExecutor;
         //this.senderFactorySet = new HashSet<>(10);
     }
 
@@ -67,60 +123,390 @@ public abstract class AbstractCommandManager<P> implements CommandManager {
         return this;
     }*/
 
-    private void invokeAsync(@NotNull Method method, @NotNull Object object, Object... args) {
-        CompletableFuture.runAsync(() -> invokeSync(method, object, args)).whenComplete((v, throwable) ->
-                logger.info("Asynchronously ran method named " + method.getName()));
+    private @NotNull CompletableFuture<Object> invokeAsync(@Nullable CommandActor<?> actor, @NotNull ExecutionPlan plan, Object @NotNull [] args) {
+        Executor executor = asyncExecutor;
+        String executorName = plan.getExecutorName();
+        if (executorName != null) {
+            executor = executors.get(executorName);
+            if (executor == null) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Unknown executor " + executorName + " of " + plan.getMethodName()));
+            }
+        }
+
+        Bulkhead bulkhead = plan.getBulkhead();
+        if (bulkhead != null) executor = bulkhead.limit(executor);
+
+        CompletableFuture<Object> future;
+        ActorMailboxes mailboxes = actorMailboxes;
+        if (mailboxes != null && actor != null) {
+            try {
+                future = mailboxes.submit(actor.getUniqueId(), plan, () -> invokeSync(plan, args), executor);
+            } catch (RejectedExecutionException exception) {
+                releaseCooldown(actor, plan);
+                throw new IllegalStateException(Message.TOO_MANY_COMMANDS.getMessage());
+            }
+        } else {
+            try {
+                future = RejectableTask.supply(() -> invokeSync(plan, args), executor);
+            } catch (RejectedExecutionException exception) {
+                releaseCooldown(actor, plan);
+                throw new IllegalStateException(Message.BULKHEAD_FULL.getMessage());
+            }
+        }
+        future.whenComplete((result, throwable) -> {
+            // rejected once the mailbox of the actor or the bulkhead queue got to it
+            if (throwable instanceof RejectedExecutionException && actor != null) {
+                releaseCooldown(actor, plan);
+                mainThreadExecutor.execute(() -> actor.reply(Message.BULKHEAD_FULL.getMessage()));
+                return;
+            }
+            // dropped by the mailbox of the actor for a newer command
+            if (throwable instanceof CancellationException) releaseCooldown(actor, plan);
+            logAsync(plan.getMethodName(), throwable);
+        });
+        return future;
+    }
+
+    /**
+     * Gives the cooldown back for a command which was rejected before it ran, it was taken when the command was parsed.
+     */
+    private void releaseCooldown(@Nullable CommandActor<?> actor, @NotNull ExecutionPlan plan) {
+        if (actor != null && plan.hasCooldown()) cooldownStore.remove(actor.getUniqueId(), plan.getCooldownId());
+    }
+
+    private static Object invokeSync(@NotNull ExecutionPlan plan, Object @NotNull [] args) {
+        try {
+            return plan.getExecutor().execute(plan.getInstance(), args);
+        } catch (Throwable exception) {
+            throw new IllegalCallerException(exception);
+        }
+    }
+
+    private @NotNull CompletableFuture<Object> invokeAsync(@NotNull Method method, @NotNull Object object, Object... args) {
+        CompletableFuture<Object> future = CompletableFuture.supplyAsync(() -> invokeSync(method, object, args), asyncExecutor);
+        future.whenComplete((result, throwable) -> logAsync(method.getName(), throwable));
+        return future;
     }
 
-    private static void invokeSync(@NotNull Method m, @NotNull Object object, Object... args) {
+    private static Object invokeSync(@NotNull Method m, @NotNull Object object, Object... args) {
         try {
-            MethodHandles.publicLookup().unreflect(m).invokeExact(object, args);
+            return MethodHandleExecutor.of(m).execute(object, args);
         } catch (Throwable exception) {
             throw new IllegalCallerException(exception);
         }
     }
 
+    private void logAsync(@NotNull String methodName, @Nullable Throwable throwable) {
+        if (throwable == null) {
+            if (log && auditLog == null) logger.info("Asynchronously ran method named " + methodName);
+            return;
+        }
+        // dropped by the mailbox of the actor for a newer command
+        if (throwable instanceof CancellationException) return;
+        // unwrap the completion and the invocation, down to what the command threw
+        while ((throwable instanceof CompletionException || throwable instanceof IllegalCallerException) && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        logger.log(Level.SEVERE, "Could not asynchronously run method named " + methodName, throwable);
+    }
+
+    private static @NotNull ExecutorService defaultExecutor(@NotNull CommandExecutionType type, @NotNull Logger logger) {
+        if (type == CommandExecutionType.VIRTUAL) {
+            ExecutorService executor = AsyncExecutors.newVirtualExecutor();
+            if (executor != null) return executor;
+            logger.warning("Virtual threads need Java 21 or newer, commands run asynchronously on platform threads instead");
+        }
+        return AsyncExecutors.newCachedExecutor("FlameWare Async");
+    }
+
+    @Override
+    public void setAsyncExecutor(@NotNull Executor executor) {
+        this.asyncExecutor = executor;
+        if (executor != ownedExecutor) shutdownOwnedExecutor();
+    }
+
+    @Override
+    public void close() {
+        shutdownOwnedExecutor();
+        cooldownStore.close();
+    }
+
+    /**
+     * Shuts down the default executor, the commands which are running still finish, user supplied executors are left alone.
+     */
+    private synchronized void shutdownOwnedExecutor() {
+        ExecutorService executor = ownedExecutor;
+        if (executor == null) return;
+        ownedExecutor = null;
+        executor.shutdown();
+    }
+
+    @Override
+    public @NotNull Bulkhead getBulkhead(@NotNull String group, int maxConcurrent, int maxQueued) {
+        return bulkheads.computeIfAbsent(group, name -> new Bulkhead(maxConcurrent, maxQueued));
+    }
+
+    @Override
+    public void registerBulkhead(@NotNull String group, @NotNull Bulkhead bulkhead) {
+        bulkheads.put(group, bulkhead);
+    }
+
+    private @Nullable Bulkhead bulkhead(@Nullable io.github.flameware.common.annotations.Bulkhead annotation) {
+        if (annotation == null) return null;
+        if (annotation.group().isEmpty()) return new Bulkhead(annotation.maxConcurrent(), annotation.maxQueued());
+        return getBulkhead(annotation.group(), annotation.maxConcurrent(), annotation.maxQueued());
+    }
+
+    @Override
+    public void setMainThreadExecutor(@NotNull MainThreadExecutor executor) {
+        this.mainThreadExecutor = executor;
+    }
+
+    @Override
+    public void setActorMailboxes(@Nullable ActorMailboxes mailboxes) {
+        this.actorMailboxes = mailboxes;
+    }
+
+    @Override
+    public void registerExecutor(@NotNull String name, @NotNull Executor executor) {
+        executors.put(name, executor);
+    }
+
     @Override
     public void setCooldownsForConsole(boolean enable) {
         this.allowCooldownsForConsole = enable;
     }
 
     @Override
-    public void invoke(@NotNull Method method, @NotNull Object object, Object... args) {
-        if (commandExecutionType == CommandExecutionType.ASYNC || method.isAnnotationPresent(Async.class)) {
-            invokeAsync(method, object, args);
+    public @NotNull CompletableFuture<Object> invoke(@NotNull Method method, @NotNull Object object, Object... args) {
+        if (commandExecutionType != CommandExecutionType.SYNC || method.isAnnotationPresent(Async.class)) {
+            return invokeAsync(method, object, args);
+        }
+        return CompletableFuture.completedFuture(invokeSync(method, object, args));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Object> invoke(@NotNull ExecutionPlan plan, Object @NotNull [] args) {
+        return invoke((CommandActor<?>) null, plan, args);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Object> invoke(@Nullable CommandActor<?> actor, @NotNull ExecutionPlan plan, Object @NotNull [] args) {
+        if (plan.isAsync()) {
+            if (plan.isCoalesce() && actor != null) {
+                return await(actor, plan, inFlightInvocations.invoke(actor.getUniqueId(), plan, args, () -> invokeAsync(actor, plan, args)));
+            }
+            return await(actor, plan, invokeAsync(actor, plan, args));
+        }
+        Object result = invokeSync(plan, args);
+        if (result instanceof CompletionStage) {
+            return await(actor, plan, CompletableFuture.completedFuture(result));
+        }
+        return CompletableFuture.completedFuture(result);
+    }
+
+    /**
+     * Waits for the {@link CompletionStage} returned by the command without blocking, then delivers its result to the actor on the main thread.
+     * <p>
+     * The stage is cancelled once the timeout of the command is over, or when the returned future is cancelled.
+     */
+    private @NotNull CompletableFuture<Object> await(@Nullable CommandActor<?> actor, @NotNull ExecutionPlan plan,
+                                                     @NotNull CompletableFuture<Object> invocation) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        invocation.whenComplete((value, throwable) -> {
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+                return;
+            }
+            if (!(value instanceof CompletionStage)) {
+                result.complete(value);
+                return;
+            }
+
+            CompletionStage<?> stage = (CompletionStage<?>) value;
+            stage.whenComplete((completion, failure) -> {
+                if (failure != null) result.completeExceptionally(failure);
+                else result.complete(completion);
+            });
+            // the result is this caller's own, so a timeout never completes the stage for other callers
+            if (plan.getTimeoutMillis() > 0) result.orTimeout(plan.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+            // timed out or cancelled by the caller, stop the work if the stage supports it and nobody else waits for it
+            boolean shared = plan.isCoalesce() && actor != null;
+            if (!shared && stage instanceof Future) {
+                result.whenComplete((completion, failure) -> {
+                    if (failure != null) ((Future<?>) stage).cancel(true);
+                });
+            }
+            result.whenCompleteAsync((completion, failure) -> deliver(actor, plan, completion, failure), mainThreadExecutor);
+        });
+        return result;
+    }
+
+    private void deliver(@Nullable CommandActor<?> actor, @NotNull ExecutionPlan plan, @Nullable Object value, @Nullable Throwable throwable) {
+        if (throwable == null) {
+            if (actor != null && value instanceof String) actor.reply((String) value);
             return;
         }
-        invokeSync(method, object, args);
+
+        while (throwable instanceof CompletionException && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        if (throwable instanceof CancellationException) return;
+        if (throwable instanceof TimeoutException) {
+            if (actor != null) actor.reply(Message.TIMED_OUT.getMessage());
+            return;
+        }
+        logger.log(Level.SEVERE, "The stage returned by method named " + plan.getMethodName() + " failed", throwable);
+        if (actor != null) actor.reply(Message.COMMAND_FAILED.getMessage());
     }
 
     @Override
-    public boolean isCooldownActive(String name, String commandName) {
-        long timeNow = System.currentTimeMillis();
-        Long cooldownEntry = this.getCooldownEntry(name, commandName);
-        return cooldownEntry != null && cooldownEntry < timeNow;
+    public @NotNull ExecutionPlan compile(@NotNull Method method, @NotNull Object instance) {
+        Parameter[] parameters = method.getParameters();
+        if (parameters.length == 0) {
+            throw new IllegalStateException("Platform Sender or CommandActor expected as the first parameter at " + method.getName() + ":" + method.getDeclaringClass().getSimpleName());
+        }
+
+        ParameterPlan[] arguments = new ParameterPlan[parameters.length - 1];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = argumentHandler.compile(parameters[i + 1]);
+        }
+
+        Cooldown cooldown = method.isAnnotationPresent(Cooldown.class) ? method.getAnnotation(Cooldown.class) : method.getDeclaringClass().getAnnotation(Cooldown.class);
+        Async async = method.getAnnotation(Async.class);
+        Timeout timeout = method.isAnnotationPresent(Timeout.class) ? method.getAnnotation(Timeout.class) : method.getDeclaringClass().getAnnotation(Timeout.class);
+        boolean coalesce = method.isAnnotationPresent(Coalesce.class) || method.getDeclaringClass().isAnnotationPresent(Coalesce.class);
+        io.github.flameware.common.annotations.Bulkhead bulkhead = method.isAnnotationPresent(io.github.flameware.common.annotations.Bulkhead.class)
+                ? method.getAnnotation(io.github.flameware.common.annotations.Bulkhead.class)
+                : method.getDeclaringClass().getAnnotation(io.github.flameware.common.annotations.Bulkhead.class);
+        return compile(ExecutionPlan.builder()
+                .method(method)
+                .methodName(method.getName())
+                .instance(instance)
+                .senderType(parameters[0].getType())
+                .parameters(arguments)
+                .cooldownMillis(cooldown == null ? 0L : cooldown.unit().toMillis(cooldown.time()))
+                .timeoutMillis(timeout == null ? 0L : timeout.unit().toMillis(timeout.time()))
+                .async(async != null)
+                .executorName(async == null || async.value().isEmpty() ? null : async.value())
+                .bulkhead(bulkhead(bulkhead))
+                .coalesce(coalesce)
+                .subcommand(method.isAnnotationPresent(Subcommand.class))
+                .executor(createExecutor(method)));
     }
 
     @Override
-    public @Nullable Long getCooldownEntry(@NotNull String name, String commandName) {
-        return Optional.ofNullable(cooldownMap.get(name))
-                .orElseThrow(() -> new IllegalStateException("String " + name + " not in Cooldown Map"))
-                .get(name);
+    public @NotNull ExecutionPlan compile(@NotNull ExecutionPlan.ExecutionPlanBuilder builder) {
+        ExecutionPlan plan = builder.build();
+        ParameterPlan[] arguments = plan.getParameters();
+        int minArgs = 0, maxArgs = arguments.length;
+        for (int i = 0; i < arguments.length; i++) {
+            ParameterPlan argument = arguments[i];
+            if (argument.isGreedy()) {
+                if (i != arguments.length - 1) {
+                    throw new IllegalStateException("@Join must annotate the last parameter at " + plan.getMethodName() + ":" + plan.getInstance().getClass().getSimpleName());
+                }
+                maxArgs = Integer.MAX_VALUE;
+            }
+            if (!argument.isOptional()) minArgs = i + 1;
+        }
+
+        return plan.toBuilder()
+                .senderResolver(resolveSender(plan))
+                .minArgs(minArgs)
+                .maxArgs(maxArgs)
+                .async(plan.isAsync() || commandExecutionType != CommandExecutionType.SYNC)
+                .build();
+    }
+
+    private @NotNull CommandExecutor createExecutor(@NotNull Method method) {
+        if (executorBackend == ExecutorBackend.GENERATED) {
+            CommandExecutor executor = GeneratedExecutor.generate(method);
+            if (executor != null) return executor;
+        }
+        return MethodHandleExecutor.of(method);
     }
 
     @Override
-    @SuppressWarnings("DataFlowIssue") // There is literally an Optional.ofNullable(...).orElse(...), good job Intellij IDEA
-    public void addCooldown(String name, String commandName, @NotNull Cooldown cooldown) {
-        Optional.ofNullable(cooldownMap.get(Objects.requireNonNull(name)))
-                .orElse(cooldownMap.put(name, new HashMap<>(754)))
-                .put(commandName, System.currentTimeMillis());
+    public void setExecutorBackend(@NotNull ExecutorBackend backend) {
+        this.executorBackend = backend;
+    }
+
+    private @NotNull SenderResolver resolveSender(@NotNull ExecutionPlan plan) {
+        Class<?> type = plan.getSenderType();
+        SenderResolver resolver = senderResolvers.get(type);
+        if (resolver != null) return resolver;
+        if (CommandActor.class.isAssignableFrom(type)) {
+            return actor -> type.isInstance(actor) ? actor : null;
+        }
+        throw new IllegalStateException(String.format("Platform Sender or CommandActor expected, found %s at %s:%s", type.getSimpleName(), plan.getMethodName(), plan.getInstance().getClass().getSimpleName()));
+    }
+
+    /**
+     * Adds the command to the dispatch tree, under the root command for subcommands.
+     * <p>
+     * The name of a subcommand may contain spaces to nest it, such as {@code "kit give"}, the aliases belong to its last literal.
+     * @param root the information of the root command
+     * @param info the information of the command, which is the root information for root commands
+     * @param plan the execution plan
+     * @return the node of the root command
+     */
+    protected @NotNull CommandNode addToTree(@NotNull CommandInfo root, @NotNull CommandInfo info, @NotNull ExecutionPlan plan) {
+        CommandNode rootNode = commandTree.literal(root.getName(), root.getAliases());
+        CommandNode node = rootNode;
+        if (plan.isSubcommand()) {
+            String[] literals = info.getName().trim().split(" +");
+            for (int i = 0; i < literals.length - 1; i++) {
+                node = node.literal(literals[i]);
+            }
+            node = node.literal(literals[literals.length - 1], info.getAliases());
+        }
+
+        String path = node.getPath();
+        plan = plan.toBuilder()
+                .path(path)
+                .cooldownId(plan.hasCooldown() ? cooldownStore.commandId(path) : plan.getCooldownId())
+                .build();
+        ICommand command = ICommand.wrap(info, this, plan);
+        node.setCommand(command);
+        commands.put(node.getPath(), command);
+        return rootNode;
+    }
+
+    @Override
+    public void registerSenderResolver(@NotNull Class<?> type, @NotNull SenderResolver resolver) {
+        senderResolvers.put(type, resolver);
+    }
+
+    @Override
+    public void setCooldownStore(@NotNull CooldownStore store) {
+        // the registered plans hold ids interned by the current store, they mean other commands in the new one
+        if (!commands.isEmpty()) {
+            throw new IllegalStateException("The cooldown store must be set before registering commands");
+        }
+        CooldownStore previous = this.cooldownStore;
+        this.cooldownStore = store;
+        if (previous != store) previous.close();
+    }
+
+    @Override
+    public boolean isCooldownActive(@NotNull UUID actor, @NotNull String commandName) {
+        return cooldownStore.isActive(actor, cooldownStore.commandId(commandName));
+    }
+
+    @Override
+    public long getRemainingCooldown(@NotNull UUID actor, @NotNull String commandName) {
+        return TimeUnit.NANOSECONDS.toMillis(cooldownStore.getRemaining(actor, cooldownStore.commandId(commandName)));
+    }
+
+    @Override
+    public void addCooldown(@NotNull UUID actor, @NotNull String commandName, long cooldownMillis) {
+        cooldownStore.put(actor, cooldownStore.commandId(commandName), TimeUnit.MILLISECONDS.toNanos(cooldownMillis));
     }
 
     @Override
-    public void removeCooldown(String name, String commandName) {
-        Optional.ofNullable(cooldownMap.get(Objects.requireNonNull(name)))
-                .orElseThrow(() -> new IllegalCallerException("Name " + name + " is not in the ConcurrentMap."))
-                .remove(commandName);
+    public void removeCooldown(@NotNull UUID actor, @NotNull String commandName) {
+        cooldownStore.remove(actor, cooldownStore.commandId(commandName));
     }
 
     @Override
@@ -128,6 +514,24 @@ public abstract class AbstractCommandManager<P> implements CommandManager {
         this.log = log;
     }
 
+    @Override
+    public boolean isLogging() {
+        return log;
+    }
+
+    @Override
+    public void setAuditLog(@Nullable CommandAuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    public void logExecution(@NotNull CommandActor<?> actor, @NotNull String command, @NotNull CharSequence arguments) {
+        if (!log) return;
+        CommandAuditLog auditLog = this.auditLog;
+        if (auditLog != null) auditLog.record(actor, command, arguments);
+        else logger.info("Command " + command + " was executed by " + actor.getName());
+    }
+
     @Override
     @CanIgnoreReturnValue
     @Contract("_, _ -> _")
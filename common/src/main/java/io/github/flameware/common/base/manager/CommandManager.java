@@ -1,68 +1,247 @@
 package io.github.flameware.common.base.manager;
 
-import io.github.flameware.common.annotations.Cooldown;
-
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import io.github.flameware.common.ExecutorBackend;
 import io.github.flameware.common.base.arguments.BaseArgumentHandler;
 import io.github.flameware.common.base.arguments.ArgumentSuggestionRegistry;
+import io.github.flameware.common.base.audit.CommandAuditLog;
+import io.github.flameware.common.base.command.CommandNode;
+import io.github.flameware.common.base.cooldown.CooldownStore;
+import io.github.flameware.common.base.execution.ActorMailboxes;
+import io.github.flameware.common.base.execution.Bulkhead;
+import io.github.flameware.common.base.execution.InFlightInvocations;
+import io.github.flameware.common.base.execution.MainThreadExecutor;
+import io.github.flameware.common.base.command.ExecutionPlan;
 import io.github.flameware.common.base.command.ICommand;
+import io.github.flameware.common.sender.CommandActor;
+import io.github.flameware.common.sender.SenderResolver;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Method;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.logging.Logger;
 
 public interface CommandManager {
     /**
-     * Get the commands map which contains all the commands AND the subcommands.
+     * Get the commands map which contains all the commands AND the subcommands, keyed by their full path such as {@code "kit give"}.
+     * <p>
+     * This is only a view for lookups by name, commands are dispatched through the {@link #getCommandTree() command tree}.
      * @return the commands map which is <String, ICommand>.</String,>
      */
     Map<String, ICommand> getCommands();
 
+    /**
+     * Get the root of the dispatch tree, whose children are the root commands.
+     * @return the command tree
+     */
+    CommandNode getCommandTree();
+
     /**
      * Get the (logger) of the command manager.
      * @return the logger
      */
     Logger getLogger();
 
+    /**
+     * Get the store of the cooldowns of every actor.
+     * @return the cooldown store
+     */
+    CooldownStore getCooldownStore();
+
+    /**
+     * Sets the store of the cooldowns, this must be done before registering commands since it interns their ids.
+     * <p>
+     * The previous store is closed.
+     * @param store the cooldown store
+     * @throws IllegalStateException if commands were already registered
+     */
+    void setCooldownStore(@NotNull CooldownStore store);
+
     /**
      * Checks if the cooldown is active.
-     * @param name the name of the command actor
-     * @param commandName the name of the command/subcommand
-     * @return true if the cooldown is in the map and active.
+     * @param actor the unique id of the command actor
+     * @param commandName the full path of the command/subcommand, such as {@code "kit give"}
+     * @return true if the cooldown is in the store and active.
      */
-    boolean isCooldownActive(String name, String commandName);
+    boolean isCooldownActive(@NotNull UUID actor, @NotNull String commandName);
 
     /**
-     * Remove the cooldown from the map.
-     * @param name the name of the command actor
-     * @param commandName the name of the command/subcommand
+     * Remove the cooldown from the store.
+     * @param actor the unique id of the command actor
+     * @param commandName the full path of the command/subcommand
      */
-    void removeCooldown(String name, String commandName);
+    void removeCooldown(@NotNull UUID actor, @NotNull String commandName);
 
     /**
-     * Get the cooldown entry from the map, may be null if un-found.
-     * @param name the name of the command actor
-     * @param commandName the name of the command/subcommand
-     * @return the cooldown entry.
+     * Get the remaining time of the cooldown.
+     * @param actor the unique id of the command actor
+     * @param commandName the full path of the command/subcommand
+     * @return the remaining milliseconds, or 0 if there is no active cooldown.
      */
-    @Nullable Long getCooldownEntry(String name, String commandName);
+    long getRemainingCooldown(@NotNull UUID actor, @NotNull String commandName);
 
     /**
-     * Adds a cooldown to the map which overrides the existing one.
-     * @param name the name of the command actor
-     * @param commandName the name of the command/subcommand
-     * @param cooldown the cooldown annotation for the command.
+     * Adds a cooldown to the store which overrides the existing one.
+     * @param actor the unique id of the command actor
+     * @param commandName the full path of the command/subcommand
+     * @param cooldownMillis the cooldown of the command in milliseconds.
      */
-    void addCooldown(String name, String commandName, @NotNull Cooldown cooldown);
+    void addCooldown(@NotNull UUID actor, @NotNull String commandName, long cooldownMillis);
 
     /**
      * Invoke the method with the given arguments on the given object.
      * @param method the method
      * @param object the object
      * @param args the arguments to invoke the method with.
+     * @return the return value of the method, completed exceptionally if the asynchronous method threw
+     */
+    @CanIgnoreReturnValue
+    @NotNull CompletableFuture<Object> invoke(@NotNull Method method, @NotNull Object object, Object... args);
+
+    /**
+     * Invoke the compiled command method, synchronously or asynchronously depending on the plan.
+     * <p>
+     * Exceptions of asynchronous methods are logged, and complete the returned future exceptionally.
+     * @param plan the execution plan of the method
+     * @param args the resolved sender followed by the parsed arguments.
+     * @return the return value of the method, already completed for synchronous methods
+     */
+    @CanIgnoreReturnValue
+    @NotNull CompletableFuture<Object> invoke(@NotNull ExecutionPlan plan, Object @NotNull [] args);
+
+    /**
+     * Invoke the compiled command method for the actor, asynchronous methods go through the {@link #getActorMailboxes() mailbox} of the actor if any.
+     * @param actor the actor running the command, null to bypass the mailboxes
+     * @param plan the execution plan of the method
+     * @param args the resolved sender followed by the parsed arguments.
+     * @return the return value of the method, already completed for synchronous methods
+     * @throws IllegalStateException with {@link Message#TOO_MANY_COMMANDS} if the mailbox of the actor is full
+     */
+    @CanIgnoreReturnValue
+    @NotNull CompletableFuture<Object> invoke(@Nullable CommandActor<?> actor, @NotNull ExecutionPlan plan, Object @NotNull [] args);
+
+    /**
+     * Gets the bulkhead of the group, creating it with the given limits if it does not exist yet.
+     * @param group the name of the group
+     * @param maxConcurrent how many commands of the group may run at once
+     * @param maxQueued how many commands of the group may wait for them
+     * @return the bulkhead, whose counts are live
+     */
+    @NotNull Bulkhead getBulkhead(@NotNull String group, int maxConcurrent, int maxQueued);
+
+    /**
+     * Registers the bulkhead of the group, replacing the limits declared by {@link io.github.flameware.common.annotations.Bulkhead @Bulkhead} for the commands registered afterwards.
+     * @param group the name of the group
+     * @param bulkhead the bulkhead
+     */
+    void registerBulkhead(@NotNull String group, @NotNull Bulkhead bulkhead);
+
+    /**
+     * Gets the bulkheads of every group.
+     * @return the bulkheads by group
+     */
+    @NotNull Map<String, Bulkhead> getBulkheads();
+
+    /**
+     * Gets the running invocations of the {@link io.github.flameware.common.annotations.Coalesce @Coalesce} commands,
+     * along with how many executions were saved by coalescing.
+     * @return the running invocations
+     */
+    @NotNull InFlightInvocations getInFlightInvocations();
+
+    /**
+     * Get the executor running tasks on the main thread of the platform.
+     * <p>
+     * Commands returning a {@link java.util.concurrent.CompletionStage CompletionStage} have it completed without blocking,
+     * a String result is then sent to the actor on this executor, and failures or {@link io.github.flameware.common.annotations.Timeout timeouts} are reported to the actor.
+     * @return the main thread executor
+     */
+    @NotNull MainThreadExecutor getMainThreadExecutor();
+
+    /**
+     * Sets the executor running tasks on the main thread, the platform modules set it for you.
+     * @param executor the main thread executor
+     */
+    void setMainThreadExecutor(@NotNull MainThreadExecutor executor);
+
+    /**
+     * Get the mailboxes ordering the asynchronous commands of each actor.
+     * @return the mailboxes, or null if asynchronous commands run in parallel
+     */
+    @Nullable ActorMailboxes getActorMailboxes();
+
+    /**
+     * Runs the asynchronous commands of each actor one at a time and in order, different actors still run in parallel.
+     * @param mailboxes the mailboxes, such as {@code new ActorMailboxes(8, OverflowPolicy.REJECT)}, or null to run every command in parallel
+     */
+    void setActorMailboxes(@Nullable ActorMailboxes mailboxes);
+
+    /**
+     * Get the executor of asynchronous commands.
+     * @return the executor
+     */
+    @NotNull Executor getAsyncExecutor();
+
+    /**
+     * Sets the executor of asynchronous commands, by default it is a pool owned by the command manager,
+     * or a virtual thread per command for {@link io.github.flameware.common.CommandExecutionType#VIRTUAL}.
+     * <p>
+     * The default executor is shut down once replaced, the given executor is owned by the caller.
+     * @param executor the executor
+     */
+    void setAsyncExecutor(@NotNull Executor executor);
+
+    /**
+     * Releases what the command manager owns, which is its default async executor and the cooldown store,
+     * commands which are running still finish. Platforms call this when the plugin disables.
+     */
+    void close();
+
+    /**
+     * Registers an executor for the commands annotated with {@link io.github.flameware.common.annotations.Async @Async} and its name,
+     * such as a small pool for database queries.
+     * @param name the name of the executor
+     * @param executor the executor
+     */
+    void registerExecutor(@NotNull String name, @NotNull Executor executor);
+
+    /**
+     * Compiles the command method into an immutable execution plan.
+     * <p>
+     * This is where all the reflection happens, once per method at registration, so execution never has to.
+     * @param method the command method
+     * @param instance the command object
+     * @return the execution plan
+     */
+    @NotNull ExecutionPlan compile(@NotNull Method method, @NotNull Object instance);
+
+    /**
+     * Finishes an execution plan whose method was already resolved, either by {@link #compile(Method, Object)}
+     * or by the classes generated at compile time by the FlameWare annotation processor.
+     * <p>
+     * This resolves the sender, the arity bounds and the execution type of the manager.
+     * @param builder the plan with the method name, instance, sender type, parameters and executor set.
+     * @return the execution plan
+     */
+    @NotNull ExecutionPlan compile(@NotNull ExecutionPlan.ExecutionPlanBuilder builder);
+
+    /**
+     * Registers a resolver for the sender parameter (the first parameter) of command methods.
+     * @param type the type of the sender parameter
+     * @param resolver the resolver
      */
-    void invoke(@NotNull Method method, @NotNull Object object, Object... args);
+    void registerSenderResolver(@NotNull Class<?> type, @NotNull SenderResolver resolver);
+
+    /**
+     * Sets how command methods are invoked, this only affects commands registered afterwards.
+     * @param backend the executor backend
+     * @see ExecutorBackend
+     */
+    void setExecutorBackend(@NotNull ExecutorBackend backend);
 
     /**
      * Registers the given commands to the command manager.
@@ -114,6 +293,34 @@ public interface CommandManager {
      */
     void setLogging(boolean log);
 
+    /**
+     * Whether logging is enabled or not.
+     * @return true if the executions are logged
+     */
+    boolean isLogging();
+
+    /**
+     * Get the audit log which the executions are recorded to, null if they are logged by the {@link #getLogger() logger}.
+     * @return the audit log or null
+     */
+    @Nullable CommandAuditLog getAuditLog();
+
+    /**
+     * Records the executions to the audit log instead of the logger, as long as logging is enabled.
+     * <p>
+     * The audit log is owned by the caller, which must close it.
+     * @param auditLog the audit log, or null to log with the logger again
+     */
+    void setAuditLog(@Nullable CommandAuditLog auditLog);
+
+    /**
+     * Logs the execution of a command, which does nothing when logging is disabled.
+     * @param actor the actor who executed the command
+     * @param command the path of the command, like {@code "kit give"}
+     * @param arguments the arguments as they were typed
+     */
+    void logExecution(@NotNull CommandActor<?> actor, @NotNull String command, @NotNull CharSequence arguments);
+
     /**
      * Change the messages that is used across the command framework.
      * @param message the message to set.
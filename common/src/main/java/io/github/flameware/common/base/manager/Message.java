@@ -1,7 +1,6 @@
 package io.github.flameware.common.base.manager;
 
-import lombok.Getter;
-import lombok.Setter;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * Customizable messages for users to be able to customize all messages/errors without having to change the internal code
@@ -9,19 +8,48 @@ import lombok.Setter;
  * This is so good to have in many cases, but also so good to have in the common code, because it's the best way to handle all
  * <p>
  * messages and errors.
+ * <p>
+ * Every message is compiled into a {@link MessageTemplate} when it is set, the indexes of its placeholders are the order they are declared in.
  * @author FlameyosFlow
  */
 public enum Message {
     NOT_ALLOWED("You are not allowed to execute this command."),
     NOT_ENOUGH_PERMISSION("You don't have enough permission to execute this command."),
-    NOT_IN_RANGE("Number %arg% is not in range %min% to %max% for %arg%."),
+    NOT_IN_RANGE("Number %arg% is not in range %min% to %max% for %arg%.", "arg", "min", "max"),
+    NOT_A_NUMBER("You must provide a number for <%arg%>!", "arg"),
+    COOLDOWN("You must wait %seconds%&cs before using this command again.", "seconds"),
+    TOO_MANY_COMMANDS("You are sending commands too fast, wait for the previous ones to finish."),
+    BULKHEAD_FULL("This command is busy, try again in a moment."),
+    TIMED_OUT("This command took too long and was cancelled."),
+    COMMAND_FAILED("An error occurred while running this command."),
     USAGE("Usage: ");
 
-    @Getter @Setter
+    private final String[] placeholders;
     @SuppressWarnings("NonFinalFieldInEnum")
-    private String message;
+    private volatile MessageTemplate template;
+
+    Message(String s, String... placeholders) {
+        this.placeholders = placeholders;
+        this.template = MessageTemplate.compile(s, placeholders);
+    }
+
+    public String getMessage() {
+        return template.getText();
+    }
+
+    public void setMessage(@NotNull String message) {
+        this.template = MessageTemplate.compile(message, placeholders);
+    }
+
+    public @NotNull MessageTemplate getTemplate() {
+        return template;
+    }
 
-    Message(String s) {
-        this.message = s;
+    /**
+     * Gets the names of the placeholders which the message may use, in the order of their index.
+     * @return the names, without the percent signs
+     */
+    public @NotNull String @NotNull [] getPlaceholders() {
+        return placeholders.clone();
     }
 }
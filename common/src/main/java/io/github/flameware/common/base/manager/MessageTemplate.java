@@ -0,0 +1,151 @@
+package io.github.flameware.common.base.manager;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A message split once into its literal text and its {@code %placeholder%}s, so rendering it is a single pass of appends.
+ * <p>
+ * The placeholders are known in advance and are referred to by their index, an unknown placeholder is kept as literal text.
+ * <p>
+ * Templates are immutable, {@link Message#setMessage(String)} compiles a new one, so platforms may cache a form of the template
+ * with {@link #getPlatformForm(Function)}.
+ * @author FlameyosFlow
+ */
+public final class MessageTemplate {
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+    private static final int MAX_RETAINED_CAPACITY = 1024;
+
+    private final String text;
+    /**
+     * The literal text before every placeholder, followed by the text after the last placeholder.
+     */
+    private final String[] literals;
+    private final int[] placeholders;
+    private volatile Object platformForm;
+
+    private MessageTemplate(String text, String[] literals, int[] placeholders) {
+        this.text = text;
+        this.literals = literals;
+        this.placeholders = placeholders;
+    }
+
+    /**
+     * Compiles the message.
+     * @param text the message
+     * @param placeholders the names of the placeholders, without the percent signs, in the order of their index
+     * @return the template
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull MessageTemplate compile(@NotNull String text, @NotNull String @NotNull ... placeholders) {
+        List<String> literals = new ArrayList<>(placeholders.length + 1);
+        int[] indexes = new int[8];
+        int count = 0;
+
+        StringBuilder literal = new StringBuilder(text.length());
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            int end = c == '%' ? text.indexOf('%', i + 1) : -1;
+            int index = end == -1 ? -1 : indexOf(placeholders, text, i + 1, end);
+            if (index == -1) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+
+            literals.add(literal.toString());
+            literal.setLength(0);
+            if (count == indexes.length) indexes = Arrays.copyOf(indexes, count * 2);
+            indexes[count++] = index;
+            i = end + 1;
+        }
+        literals.add(literal.toString());
+        return new MessageTemplate(text, literals.toArray(new String[0]), Arrays.copyOf(indexes, count));
+    }
+
+    private static int indexOf(String[] placeholders, String text, int start, int end) {
+        for (int i = 0; i < placeholders.length; i++) {
+            String placeholder = placeholders[i];
+            if (placeholder.length() == end - start && text.startsWith(placeholder, start)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Renders the message into a builder reused by the thread.
+     * @param values appends the value of every placeholder
+     * @return the message
+     */
+    public @NotNull String render(@NotNull Placeholders values) {
+        if (placeholders.length == 0) return text;
+
+        StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+        appendTo(builder, values);
+        String message = builder.toString();
+        // a huge value would otherwise stay allocated for the lifetime of the thread
+        if (builder.capacity() > MAX_RETAINED_CAPACITY) BUILDER.remove();
+        return message;
+    }
+
+    /**
+     * Renders the message at the end of the builder.
+     * @param builder the builder
+     * @param values appends the value of every placeholder
+     */
+    public void appendTo(@NotNull StringBuilder builder, @NotNull Placeholders values) {
+        for (int i = 0; i < placeholders.length; i++) {
+            builder.append(literals[i]);
+            values.append(builder, placeholders[i]);
+        }
+        builder.append(literals[placeholders.length]);
+    }
+
+    /**
+     * Whether the message has no placeholder, in which case rendering it always gives {@link #getText()}.
+     * @return true if the message is constant
+     */
+    public boolean isConstant() {
+        return placeholders.length == 0;
+    }
+
+    public @NotNull String getText() {
+        return text;
+    }
+
+    /**
+     * Gets the form of the template which a platform sends, such as an adventure component, creating it on first use.
+     * <p>
+     * Only one form is kept per template, which is enough since a server runs a single platform.
+     * @param factory creates the form
+     * @return the form
+     * @param <T> the type of the form
+     */
+    @SuppressWarnings("unchecked")
+    public <T> @NotNull T getPlatformForm(@NotNull Function<? super MessageTemplate, ? extends T> factory) {
+        Object form = platformForm;
+        if (form == null) platformForm = form = factory.apply(this);
+        return (T) form;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    @FunctionalInterface
+    public interface Placeholders {
+        /**
+         * Appends the value of the placeholder.
+         * @param builder the message being rendered
+         * @param placeholder the index of the placeholder
+         */
+        void append(@NotNull StringBuilder builder, int placeholder);
+    }
+}
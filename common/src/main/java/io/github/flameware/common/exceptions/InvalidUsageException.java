@@ -0,0 +1,7 @@
+package io.github.flameware.common.exceptions;
+
+public final class InvalidUsageException extends Exception {
+    public InvalidUsageException() {
+        super();
+    }
+}
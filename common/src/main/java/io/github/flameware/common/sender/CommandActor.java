@@ -43,6 +43,14 @@ public interface CommandActor<T> {
      */
     String getName();
 
+    /**
+     * Gets the unique id of the actor, which never changes, unlike the name.
+     * <p>
+     * Actors without one, like the console, get an id derived from their name.
+     * @return the unique id of the actor
+     */
+    UUID getUniqueId();
+
     /**
      * Gets the executor of the command, never returns null
      * @return the sender object
@@ -0,0 +1,20 @@
+package io.github.flameware.common.sender;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Resolves the first parameter of a command method (the sender) from the {@link CommandActor}.
+ * <p>
+ * Resolvers are looked up once per command method when it is registered, so they should be cheap and stateless.
+ * @author FlameyosFlow
+ */
+@FunctionalInterface
+public interface SenderResolver {
+    /**
+     * Resolves the sender object to pass to the command method.
+     * @param actor the command actor
+     * @return the sender object, or null if the actor is not allowed to run the command.
+     */
+    @Nullable Object resolve(@NotNull CommandActor<?> actor);
+}
@@ -0,0 +1,126 @@
+package io.github.flameware.common.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A case-insensitive hash table keyed by literals, made for lookups straight from the typed {@link CharSequence}.
+ * <p>
+ * Case folding happens while hashing and comparing, so a lookup never allocates a lower-cased String.
+ * <p>
+ * This is read-mostly: lookups are lock-free and writes copy the table, which is fine since it is only written at registration.
+ * @param <V> the value type
+ * @author FlameyosFlow
+ */
+public final class LiteralTable<V> {
+    /**
+     * The keys and values, published together so a reader never sees them from different writes.
+     */
+    private volatile Object[][] table;
+    private int size;
+
+    public LiteralTable() {
+        this(8);
+    }
+
+    public LiteralTable(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        this.table = new Object[][] { new String[capacity], new Object[capacity] };
+    }
+
+    /**
+     * Gets the value of the literal, ignoring case.
+     * @param literal the literal
+     * @return the value, or null if absent
+     */
+    public @Nullable V get(@NotNull CharSequence literal) {
+        return get(literal, 0, literal.length());
+    }
+
+    /**
+     * Gets the value of the literal in the given range of the sequence, ignoring case.
+     * @param sequence the sequence containing the literal
+     * @param start the start of the literal, inclusive
+     * @param end the end of the literal, exclusive
+     * @return the value, or null if absent
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V get(@NotNull CharSequence sequence, int start, int end) {
+        Object[][] table = this.table;
+        String[] keys = (String[]) table[0];
+        Object[] values = table[1];
+        int mask = keys.length - 1;
+        for (int index = hash(sequence, start, end) & mask; ; index = (index + 1) & mask) {
+            String key = keys[index];
+            if (key == null) return null;
+            if (matches(key, sequence, start, end)) return (V) values[index];
+        }
+    }
+
+    /**
+     * Puts the value of the literal, replacing the current one.
+     * @param literal the literal
+     * @param value the value
+     * @return the previous value, or null if absent
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized @Nullable V put(@NotNull String literal, @NotNull V value) {
+        String[] keys = (String[]) table[0];
+        Object[] values = table[1];
+        if ((size + 1) * 2 > keys.length) {
+            String[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new String[oldKeys.length * 2];
+            values = new Object[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) insert(keys, values, oldKeys[i], oldValues[i]);
+            }
+        } else {
+            keys = keys.clone();
+            values = values.clone();
+        }
+
+        Object previous = insert(keys, values, literal, value);
+        if (previous == null) size++;
+        this.table = new Object[][] { keys, values };
+        return (V) previous;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static Object insert(String[] keys, Object[] values, String literal, Object value) {
+        int mask = keys.length - 1;
+        for (int index = hash(literal, 0, literal.length()) & mask; ; index = (index + 1) & mask) {
+            if (keys[index] == null) {
+                keys[index] = literal;
+                values[index] = value;
+                return null;
+            }
+            if (matches(keys[index], literal, 0, literal.length())) {
+                Object previous = values[index];
+                values[index] = value;
+                return previous;
+            }
+        }
+    }
+
+    private static int hash(CharSequence sequence, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + Character.toLowerCase(sequence.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String key, CharSequence sequence, int start, int end) {
+        int length = key.length();
+        if (length != end - start) return false;
+        for (int i = 0; i < length; i++) {
+            char a = key.charAt(i), b = sequence.charAt(start + i);
+            if (a != b && Character.toLowerCase(a) != Character.toLowerCase(b)) return false;
+        }
+        return true;
+    }
+}
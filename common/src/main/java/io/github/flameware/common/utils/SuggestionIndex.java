@@ -0,0 +1,176 @@
+package io.github.flameware.common.utils;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An immutable set of suggestions sorted case-insensitively, so the suggestions starting with a prefix are found
+ * with a binary search and form a single range.
+ * <p>
+ * Case folding happens while comparing, so a lookup never allocates a lower-cased String.
+ * @author FlameyosFlow
+ */
+public final class SuggestionIndex {
+    private static final SuggestionIndex EMPTY = new SuggestionIndex(new String[0]);
+    private static final Comparator<String> ORDER = SuggestionIndex::compare;
+
+    private final String[] values;
+    private final List<String> view;
+
+    private SuggestionIndex(@NotNull String[] values) {
+        this.values = values;
+        this.view = Collections.unmodifiableList(Arrays.asList(values));
+    }
+
+    /**
+     * Creates the index of the suggestions, duplicates are kept.
+     * @param suggestions the suggestions, null ones are skipped
+     * @return the index
+     */
+    @Contract("_ -> new")
+    public static @NotNull SuggestionIndex of(@NotNull Collection<String> suggestions) {
+        List<String> values = new ArrayList<>(suggestions.size());
+        for (String suggestion : suggestions) {
+            if (suggestion != null) values.add(suggestion);
+        }
+        return of(values.toArray(new String[0]));
+    }
+
+    /**
+     * Creates the index of the suggestions, duplicates are kept.
+     * @param suggestions the suggestions, which are copied
+     * @return the index
+     */
+    public static @NotNull SuggestionIndex of(@NotNull String... suggestions) {
+        if (suggestions.length == 0) return EMPTY;
+        String[] values = suggestions.clone();
+        Arrays.sort(values, ORDER);
+        return new SuggestionIndex(values);
+    }
+
+    public static @NotNull SuggestionIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates a copy of the index with the value inserted in order, which costs a copy of the array rather than a sort.
+     * @param value the value
+     * @return the new index
+     */
+    @Contract("_ -> new")
+    public @NotNull SuggestionIndex with(@NotNull String value) {
+        int low = 0, high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(values[middle], value) < 0) low = middle + 1;
+            else high = middle;
+        }
+        String[] copy = new String[values.length + 1];
+        System.arraycopy(values, 0, copy, 0, low);
+        copy[low] = value;
+        System.arraycopy(values, low, copy, low + 1, values.length - low);
+        return new SuggestionIndex(copy);
+    }
+
+    /**
+     * Checks whether the index holds the value, ignoring case.
+     * @param value the value
+     * @return true if it does
+     */
+    public boolean contains(@NotNull CharSequence value) {
+        int index = lowerBound(value);
+        return index < values.length && values[index].length() == value.length() && startsWith(values[index], value);
+    }
+
+    /**
+     * Adds the suggestions which start with the prefix, ignoring case, in order.
+     * @param prefix the prefix, usually what is being typed
+     * @param list the list to add to
+     * @param limit the maximum amount of suggestions to add
+     * @return the amount of suggestions added
+     */
+    public int complete(@NotNull CharSequence prefix, @NotNull List<? super String> list, int limit) {
+        int added = 0;
+        for (int i = lowerBound(prefix); i < values.length && added < limit && startsWith(values[i], prefix); i++) {
+            list.add(values[i]);
+            added++;
+        }
+        return added;
+    }
+
+    /**
+     * Counts the suggestions which start with the prefix, ignoring case.
+     * @param prefix the prefix
+     * @return the amount of suggestions
+     */
+    public int count(@NotNull CharSequence prefix) {
+        int from = lowerBound(prefix);
+        int low = from, high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (startsWith(values[middle], prefix)) low = middle + 1;
+            else high = middle;
+        }
+        return low - from;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Gets every suggestion, in order.
+     * @return the suggestions
+     */
+    public @NotNull @Unmodifiable List<String> getValues() {
+        return view;
+    }
+
+    /**
+     * Finds the first suggestion which is not before the prefix.
+     */
+    private int lowerBound(CharSequence prefix) {
+        int low = 0, high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareToPrefix(values[middle], prefix) < 0) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Compares the value to the prefix, a value starting with the prefix is equal to it.
+     */
+    private static int compareToPrefix(String value, CharSequence prefix) {
+        int length = Math.min(value.length(), prefix.length());
+        for (int i = 0; i < length; i++) {
+            char first = Character.toLowerCase(value.charAt(i));
+            char second = Character.toLowerCase(prefix.charAt(i));
+            if (first != second) return first - second;
+        }
+        return value.length() < prefix.length() ? -1 : 0;
+    }
+
+    private static boolean startsWith(String value, CharSequence prefix) {
+        return value.length() >= prefix.length() && compareToPrefix(value, prefix) == 0;
+    }
+
+    private static int compare(String first, String second) {
+        int length = Math.min(first.length(), second.length());
+        for (int i = 0; i < length; i++) {
+            char a = Character.toLowerCase(first.charAt(i));
+            char b = Character.toLowerCase(second.charAt(i));
+            if (a != b) return a - b;
+        }
+        return first.length() - second.length();
+    }
+}
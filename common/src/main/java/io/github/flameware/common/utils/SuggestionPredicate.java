@@ -1,8 +1,14 @@
 package io.github.flameware.common.utils;
 
-import java.util.List;
+import io.github.flameware.common.base.arguments.Completions;
 
 @FunctionalInterface
 public interface SuggestionPredicate {
-    boolean test(Class<?> clazz, List<String> list);
+    /**
+     * Suggests the values of a type which the platform knows about, such as players.
+     * @param clazz the type of the parameter
+     * @param completions the completions to offer the values to
+     * @return true if the type was handled, so the suggestions of the parameter are skipped
+     */
+    boolean test(Class<?> clazz, Completions completions);
 }
@@ -0,0 +1,17 @@
+plugins {
+    id("java")
+}
+
+group = "io.github.flameware.processor"
+version = "1.0.0"
+
+repositories {
+    mavenCentral()
+}
+
+java.toolchain.languageVersion.set(JavaLanguageVersion.of(11))
+
+dependencies {
+    implementation(project(":common"))
+    compileOnly("org.jetbrains:annotations:24.0.1")
+}
@@ -0,0 +1,333 @@
+package io.github.flameware.processor;
+
+import io.github.flameware.common.annotations.Arg;
+import io.github.flameware.common.annotations.Async;
+import io.github.flameware.common.annotations.Command;
+import io.github.flameware.common.annotations.Bulkhead;
+import io.github.flameware.common.annotations.Coalesce;
+import io.github.flameware.common.annotations.Cooldown;
+import io.github.flameware.common.annotations.Timeout;
+import io.github.flameware.common.annotations.Default;
+import io.github.flameware.common.annotations.Join;
+import io.github.flameware.common.annotations.Range;
+import io.github.flameware.common.annotations.Subcommand;
+import io.github.flameware.common.annotations.Suggest;
+import io.github.flameware.common.base.command.CommandRegistrar;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The FlameWare annotation processor, generates a {@link CommandRegistrar} next to every command class.
+ * <p>
+ * The generated registrar builds the execution plans and calls the command methods directly, so the command managers
+ * need no reflection to register or to execute the commands, and annotation mistakes become compile errors.
+ * <p>
+ * Add it with <code>annotationProcessor("io.github.flameware.processor:processor:VERSION")</code>.
+ * @author FlameyosFlow
+ */
+@SupportedAnnotationTypes({
+        "io.github.flameware.common.annotations.Command",
+        "io.github.flameware.common.annotations.Subcommand"
+})
+public final class CommandProcessor extends AbstractProcessor {
+    private static final String DEFAULT_NAME = "<CLASS_COMMAND_DEFAULT>";
+
+    private Messager messager;
+    private Elements elements;
+    private Types types;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.messager = processingEnv.getMessager();
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> commandClasses = new LinkedHashSet<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(Command.class)) {
+            commandClasses.add(element.getKind() == ElementKind.METHOD ? (TypeElement) element.getEnclosingElement() : (TypeElement) element);
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(Subcommand.class)) {
+            commandClasses.add((TypeElement) element.getEnclosingElement());
+        }
+
+        for (TypeElement commandClass : commandClasses) {
+            String source = generate(commandClass);
+            if (source == null) continue;
+
+            String name = CommandRegistrar.nameOf(elements.getBinaryName(commandClass).toString());
+            try (Writer writer = processingEnv.getFiler().createSourceFile(name, commandClass).openWriter()) {
+                writer.write(source);
+            } catch (IOException exception) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Could not write the FlameWare registrar: " + exception.getMessage(), commandClass);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Generates the source of the registrar.
+     * @param commandClass the command class
+     * @return the source, or null if the command class has errors which were reported.
+     */
+    private String generate(@NotNull TypeElement commandClass) {
+        Command classCommand = commandClass.getAnnotation(Command.class);
+        if (classCommand == null || DEFAULT_NAME.equalsIgnoreCase(classCommand.name())) {
+            error(commandClass, "@Command(name = ...) must annotate the class of the command methods");
+            return null;
+        }
+        if (commandClass.getAnnotation(Subcommand.class) != null) {
+            error(commandClass, "You cannot have both @Command and @Subcommand on a method/class");
+            return null;
+        }
+        if (commandClass.getModifiers().contains(Modifier.PRIVATE)) {
+            error(commandClass, "Command classes cannot be private");
+            return null;
+        }
+
+        String binaryName = elements.getBinaryName(commandClass).toString();
+        String packageName = elements.getPackageOf(commandClass).getQualifiedName().toString();
+        String registrarName = CommandRegistrar.nameOf(binaryName).substring(packageName.isEmpty() ? 0 : packageName.length() + 1);
+        String className = types.erasure(commandClass.asType()).toString();
+        Cooldown classCooldown = commandClass.getAnnotation(Cooldown.class);
+
+        StringBuilder sb = new StringBuilder(2048);
+        sb.append("// Generated by the FlameWare annotation processor, do not edit.\n");
+        if (!packageName.isEmpty()) sb.append("package ").append(packageName).append(";\n");
+        sb.append('\n')
+                .append("@javax.annotation.processing.Generated(\"").append(CommandProcessor.class.getName()).append("\")\n")
+                .append("public final class ").append(registrarName)
+                .append(" implements io.github.flameware.common.base.command.CommandRegistrar<").append(className).append("> {\n")
+                .append("    @Override\n")
+                .append("    public void register(io.github.flameware.common.base.manager.CommandManager manager, ").append(className).append(" command,\n")
+                .append("                         io.github.flameware.common.utils.TiConsumer<io.github.flameware.common.base.command.CommandInfo, io.github.flameware.common.base.command.CommandInfo, io.github.flameware.common.base.command.ExecutionPlan> registration) {\n")
+                .append("        io.github.flameware.common.base.arguments.BaseArgumentHandler handler = manager.getArgumentHandler();\n")
+                .append("        io.github.flameware.common.base.command.CommandInfo root = new io.github.flameware.common.base.command.CommandInfo(")
+                .append(literal(classCommand.name())).append(", ").append(literal(classCommand.desc())).append(", ")
+                .append(literal(classCommand.perm())).append(", ").append(literal(classCommand.usage())).append(", ")
+                .append(literals(classCommand.aliases())).append(");\n");
+
+        boolean valid = true;
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(commandClass))) {
+            Subcommand subcommand = method.getAnnotation(Subcommand.class);
+            Command command = method.getAnnotation(Command.class);
+            if (subcommand == null && command == null) continue;
+            valid &= appendMethod(sb, method, className, subcommand, command, classCooldown);
+        }
+
+        sb.append("    }\n}\n");
+        return valid ? sb.toString() : null;
+    }
+
+    private boolean appendMethod(StringBuilder sb, ExecutableElement method, String className,
+                                 Subcommand subcommand, Command command, Cooldown classCooldown) {
+        if (subcommand != null && command != null) {
+            error(method, "You cannot have both @Subcommand and @Command on a method/class");
+            return false;
+        }
+        if (!method.getModifiers().contains(Modifier.PUBLIC)) {
+            error(method, "Command methods must be public");
+            return false;
+        }
+
+        List<? extends VariableElement> parameters = method.getParameters();
+        if (parameters.isEmpty() || !isSender(parameters.get(0).asType())) {
+            error(parameters.isEmpty() ? method : parameters.get(0), "Platform Sender or CommandActor expected as the first parameter");
+            return false;
+        }
+
+        boolean valid = true;
+        StringBuilder plans = new StringBuilder(256);
+        StringBuilder call = new StringBuilder(128);
+        call.append('(').append(cast(parameters.get(0).asType())).append(" a[0]");
+        for (int i = 1; i < parameters.size(); i++) {
+            VariableElement parameter = parameters.get(i);
+            TypeMirror type = parameter.asType();
+            Arg arg = parameter.getAnnotation(Arg.class);
+            Join join = parameter.getAnnotation(Join.class);
+            Range range = parameter.getAnnotation(Range.class);
+            Default def = parameter.getAnnotation(Default.class);
+            Suggest suggest = parameter.getAnnotation(Suggest.class);
+
+            if (join != null && !types.isSameType(type, elements.getTypeElement("java.lang.String").asType())) {
+                error(parameter, "@Join can only be used on a String");
+                valid = false;
+            }
+            if (join != null && i != parameters.size() - 1) {
+                error(parameter, "@Join must annotate the last parameter");
+                valid = false;
+            }
+            if (range != null && !isNumber(type)) {
+                error(parameter, "@Range can only be used on a number");
+                valid = false;
+            }
+
+            plans.append("                        handler.compile(")
+                    .append(literal(arg == null ? parameter.getSimpleName().toString() : arg.id())).append(", ")
+                    .append(types.erasure(type)).append(".class, ")
+                    .append(join == null ? "null" : literal(join.delimiter())).append(", ")
+                    .append(range != null).append(", ")
+                    .append(range == null ? "0.0d" : literal(range.min())).append(", ")
+                    .append(range == null ? "java.lang.Double.MAX_VALUE" : literal(range.max())).append(", ")
+                    .append(def == null ? "null" : literal(def.def())).append(", ")
+                    .append(literals(suggest == null ? new String[0] : suggest.value())).append("),\n");
+            call.append(", ").append(cast(type)).append(" a[").append(i).append(']');
+        }
+        call.append(')');
+        if (!valid) return false;
+
+        Cooldown cooldown = method.getAnnotation(Cooldown.class) != null ? method.getAnnotation(Cooldown.class) : classCooldown;
+        Async async = method.getAnnotation(Async.class);
+        Timeout timeout = method.getAnnotation(Timeout.class) != null ? method.getAnnotation(Timeout.class) : method.getEnclosingElement().getAnnotation(Timeout.class);
+        Bulkhead bulkhead = method.getAnnotation(Bulkhead.class) != null ? method.getAnnotation(Bulkhead.class) : method.getEnclosingElement().getAnnotation(Bulkhead.class);
+        String target = method.getModifiers().contains(Modifier.STATIC) ? className : "((" + className + ") o)";
+        String invocation = target + '.' + method.getSimpleName() + call;
+
+        sb.append("        registration.accept(root, ");
+        if (subcommand == null) {
+            sb.append("root,\n");
+        } else {
+            sb.append("new io.github.flameware.common.base.command.CommandInfo(")
+                    .append(literal(subcommand.name())).append(", ").append(literal(subcommand.desc())).append(", ")
+                    .append(literal(subcommand.perm())).append(", ").append(literal(subcommand.usage())).append(", ")
+                    .append(literals(subcommand.aliases())).append("),\n");
+        }
+        sb
+                .append("                manager.compile(io.github.flameware.common.base.command.ExecutionPlan.builder()\n")
+                .append("                .methodName(").append(literal(method.getSimpleName().toString())).append(")\n")
+                .append("                .instance(command)\n")
+                .append("                .senderType(").append(types.erasure(parameters.get(0).asType())).append(".class)\n")
+                .append("                .parameters(new io.github.flameware.common.base.arguments.ParameterPlan[] {\n")
+                .append(plans)
+                .append("                })\n")
+                .append("                .cooldownMillis(").append(cooldown == null ? 0L : cooldown.unit().toMillis(cooldown.time())).append("L)\n")
+                .append("                .timeoutMillis(").append(timeout == null ? 0L : timeout.unit().toMillis(timeout.time())).append("L)\n")
+                .append("                .async(").append(async != null).append(")\n")
+                .append("                .executorName(").append(async == null || async.value().isEmpty() ? "null" : literal(async.value())).append(")\n");
+        if (bulkhead != null) {
+            sb.append("                .bulkhead(");
+            if (bulkhead.group().isEmpty()) {
+                sb.append("new io.github.flameware.common.base.execution.Bulkhead(");
+            } else {
+                sb.append("manager.getBulkhead(").append(literal(bulkhead.group())).append(", ");
+            }
+            sb.append(bulkhead.maxConcurrent()).append(", ").append(bulkhead.maxQueued()).append("))\n");
+        }
+        if (method.getAnnotation(Coalesce.class) != null || method.getEnclosingElement().getAnnotation(Coalesce.class) != null) {
+            sb.append("                .coalesce(true)\n");
+        }
+        sb
+                .append("                .subcommand(").append(subcommand != null).append(")\n")
+                .append("                .executor((o, a) -> ");
+        if (method.getReturnType().getKind() == TypeKind.VOID) {
+            sb.append("{ ").append(invocation).append("; return null; }");
+        } else {
+            sb.append(invocation);
+        }
+        sb.append(")));\n");
+        return true;
+    }
+
+    private String cast(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return "(" + types.boxedClass((PrimitiveType) type).getQualifiedName() + ")";
+        }
+        return "(" + types.erasure(type) + ")";
+    }
+
+    /**
+     * Whether the type can be a sender, the resolvers are only known at runtime so this rejects the types which are always arguments.
+     */
+    private boolean isSender(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) return false;
+        if (isNumber(type) || ((DeclaredType) type).asElement().getKind() == ElementKind.ENUM) return false;
+        for (String argument : new String[] { "java.lang.String", "java.lang.Boolean", "java.lang.Character" }) {
+            if (types.isSameType(types.erasure(type), elements.getTypeElement(argument).asType())) return false;
+        }
+        return true;
+    }
+
+    private boolean isNumber(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return type.getKind() != TypeKind.BOOLEAN && type.getKind() != TypeKind.CHAR;
+        }
+        return types.isAssignable(type, elements.getTypeElement("java.lang.Number").asType());
+    }
+
+    private void error(Element element, String message) {
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static String literals(String[] strings) {
+        if (strings.length == 0) return "new java.lang.String[0]";
+        StringBuilder sb = new StringBuilder("new java.lang.String[] { ");
+        for (int i = 0; i < strings.length; i++) {
+            if (i != 0) sb.append(", ");
+            sb.append(literal(strings[i]));
+        }
+        return sb.append(" }").toString();
+    }
+
+    /**
+     * Writes the double as java source, infinities and NaN have no literal.
+     */
+    private static String literal(double value) {
+        if (Double.isNaN(value)) return "java.lang.Double.NaN";
+        if (value == Double.POSITIVE_INFINITY) return "java.lang.Double.POSITIVE_INFINITY";
+        if (value == Double.NEGATIVE_INFINITY) return "java.lang.Double.NEGATIVE_INFINITY";
+        return value + "d";
+    }
+
+    private static String literal(String string) {
+        StringBuilder sb = new StringBuilder(string.length() + 2).append('"');
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20 || c > 0x7e) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
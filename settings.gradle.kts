@@ -1,3 +1,4 @@
 rootProject.name = "FlameWare"
 include("common")
 include("spigot")
+include("processor")
@@ -0,0 +1,185 @@
+package io.github.flameware.spigot.core;
+
+import io.github.flameware.common.base.arguments.CommandLine;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+/**
+ * Completes FlameWare commands off the main thread on Paper, through its {@code AsyncTabCompleteEvent}.
+ * <p>
+ * Paper fires the event on the thread of the connection, before falling back to the synchronous completion of the command,
+ * which is still what happens on Spigot or whenever this does not handle the event.
+ * <p>
+ * Paper is not a dependency, the event is found and read reflectively through method handles, once.
+ * @author FlameyosFlow
+ */
+public final class AsyncTabComplete implements Listener {
+    private static final String PAPER_EVENT = "com.destroystokyo.paper.event.server.AsyncTabCompleteEvent";
+
+    private final SpigotCommandManager manager;
+
+    AsyncTabComplete(@NotNull SpigotCommandManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Listens to the asynchronous tab completion if the server runs Paper.
+     * @param manager the manager
+     * @return true if it does, false if completion stays on the main thread
+     */
+    static boolean register(@NotNull SpigotCommandManager manager) {
+        Class<? extends Event> eventClass;
+        PaperTabCompletion.Handles handles;
+        try {
+            eventClass = Class.forName(PAPER_EVENT).asSubclass(Event.class);
+            handles = new PaperTabCompletion.Handles(eventClass);
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+            return false;
+        }
+
+        AsyncTabComplete listener = new AsyncTabComplete(manager);
+        Bukkit.getPluginManager().registerEvent(eventClass, listener, EventPriority.NORMAL, (ignored, event) -> {
+            if (!eventClass.isInstance(event)) return;
+            try {
+                listener.complete(new PaperTabCompletion(handles, event));
+            } catch (RuntimeException exception) {
+                throw new EventException(exception);
+            }
+        }, manager.getPlugin(), true);
+        return true;
+    }
+
+    /**
+     * Completes the line if it is a FlameWare command whose arguments are being typed.
+     * <p>
+     * The label itself is left to the server, as are the commands of other plugins.
+     * @param completion the completion
+     * @return true if it was handled
+     */
+    public boolean complete(@NotNull TabCompletion completion) {
+        if (completion.isHandled() || !completion.isCommand()) return false;
+        String buffer = completion.getBuffer();
+        int start = buffer.startsWith("/") ? 1 : 0;
+        int space = buffer.indexOf(' ', start);
+        if (space < 0) return false;
+
+        String label = buffer.substring(start, space);
+        CommandWrapper command = manager.getCommandWrapper(label);
+        if (command == null) return false;
+
+        CommandSender sender = completion.getSender();
+        // like the command map, which does not complete the commands that the sender cannot run
+        List<String> completions = command.testPermissionSilent(sender)
+                ? command.complete(CommandLine.tokenize(buffer.substring(space + 1)))
+                : List.of();
+        completion.setCompletions(completions);
+        completion.setHandled(true);
+        return true;
+    }
+
+    /**
+     * Reads Paper's event through method handles.
+     */
+    private static final class PaperTabCompletion implements TabCompletion {
+        private final Handles handles;
+        private final Object event;
+
+        PaperTabCompletion(Handles handles, Object event) {
+            this.handles = handles;
+            this.event = event;
+        }
+
+        @Override
+        public @NotNull CommandSender getSender() {
+            try {
+                return (CommandSender) handles.getSender.invokeExact(event);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public @NotNull String getBuffer() {
+            try {
+                return (String) handles.getBuffer.invokeExact(event);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public boolean isCommand() {
+            try {
+                return (boolean) handles.isCommand.invokeExact(event);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public boolean isHandled() {
+            try {
+                return (boolean) handles.isHandled.invokeExact(event);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public void setHandled(boolean handled) {
+            try {
+                handles.setHandled.invokeExact(event, handled);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        @Override
+        public void setCompletions(@NotNull List<String> completions) {
+            try {
+                handles.setCompletions.invokeExact(event, completions);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+        }
+
+        private static RuntimeException rethrow(Throwable throwable) {
+            if (throwable instanceof RuntimeException) return (RuntimeException) throwable;
+            if (throwable instanceof Error) throw (Error) throwable;
+            return new IllegalStateException(throwable);
+        }
+
+        private static final class Handles {
+            private final MethodHandle getSender, getBuffer, isCommand, isHandled, setHandled, setCompletions;
+
+            Handles(Class<?> eventClass) throws NoSuchMethodException, IllegalAccessException {
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                this.getSender = find(lookup, eventClass, "getSender", MethodType.methodType(CommandSender.class));
+                this.getBuffer = find(lookup, eventClass, "getBuffer", MethodType.methodType(String.class));
+                this.isCommand = find(lookup, eventClass, "isCommand", MethodType.methodType(boolean.class));
+                this.isHandled = find(lookup, eventClass, "isHandled", MethodType.methodType(boolean.class));
+                this.setHandled = find(lookup, eventClass, "setHandled", MethodType.methodType(void.class, boolean.class));
+                this.setCompletions = find(lookup, eventClass, "setCompletions", MethodType.methodType(void.class, List.class));
+            }
+
+            private static MethodHandle find(MethodHandles.Lookup lookup, Class<?> eventClass, String name, MethodType type)
+                    throws NoSuchMethodException, IllegalAccessException {
+                // erased to Object, so the handles can be invoked exactly without knowing the event class
+                MethodHandle handle = lookup.findVirtual(eventClass, name, type);
+                return handle.asType(handle.type().changeParameterType(0, Object.class));
+            }
+        }
+    }
+}
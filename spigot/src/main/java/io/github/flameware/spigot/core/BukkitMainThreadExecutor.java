@@ -0,0 +1,34 @@
+package io.github.flameware.spigot.core;
+
+import io.github.flameware.common.base.execution.MainThreadExecutor;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Runs tasks on the server thread, right away when already on it, else on the next tick through the scheduler.
+ * @author FlameyosFlow
+ */
+public final class BukkitMainThreadExecutor implements MainThreadExecutor {
+    private final Plugin plugin;
+
+    public BukkitMainThreadExecutor(@NotNull Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void execute(@NotNull Runnable command) {
+        if (Bukkit.isPrimaryThread()) {
+            command.run();
+            return;
+        }
+        Bukkit.getScheduler().runTask(plugin, command);
+    }
+
+    @Override
+    public boolean isMainThread() {
+        return Bukkit.isPrimaryThread();
+    }
+}
@@ -1,20 +1,20 @@
 package io.github.flameware.spigot.core;
 
-import io.github.flameware.common.annotations.Arg;
-import io.github.flameware.common.annotations.Default;
+import io.github.flameware.common.base.arguments.ArgumentSuggestionRegistry;
+import io.github.flameware.common.base.arguments.CommandLine;
+import io.github.flameware.common.base.arguments.Completions;
+import io.github.flameware.common.base.command.CommandNode;
 import io.github.flameware.common.base.command.ICommand;
 import io.github.flameware.common.base.command.CommandInfo;
 import io.github.flameware.common.exceptions.ArgumentParseException;
 import io.github.flameware.common.exceptions.CooldownActiveException;
-import io.github.flameware.common.exceptions.NotInRangeException;
+import io.github.flameware.common.exceptions.InvalidUsageException;
 import io.github.flameware.spigot.sender.SpigotCommandActor;
 
-import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.World;
 import org.bukkit.command.CommandSender;
-import org.bukkit.command.ConsoleCommandSender;
 import org.bukkit.command.Command;
 import org.bukkit.command.PluginIdentifiableCommand;
 import org.bukkit.entity.Player;
@@ -23,13 +23,8 @@ import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Unmodifiable;
 
-import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * The main CommandWrapper for spigot.
@@ -38,51 +33,43 @@ import java.util.stream.Collectors;
 @ApiStatus.Internal
 public final class CommandWrapper extends Command implements PluginIdentifiableCommand {
     private final SpigotCommandManager manager;
-    private final Object object;
-    private final ICommand command;
-    private final Method method;
+    private final CommandNode node;
+    private final boolean generatedUsage;
 
-    CommandWrapper(@NotNull CommandInfo info, @NotNull SpigotCommandManager manager, ICommand command, @NotNull Object object, @NotNull Method method) {
+    CommandWrapper(@NotNull CommandInfo info, @NotNull SpigotCommandManager manager, @NotNull CommandNode node) {
         super(info.getName(), info.getDescription(), info.getUsage(), List.of(info.getAliases()));
         this.manager = manager;
-        this.object = object;
-        this.method = method;
-        this.command = command;
+        this.node = node;
         if (info.getPermission() != null && !info.getPermission().isEmpty()) {
             setPermission(info.getPermission());
         }
 
-        if (info.getUsage().isEmpty() || "/".equals(info.getUsage())) {
-            StringBuilder sb = new StringBuilder(100);
-            sb.append('/').append(info.getName());
-            for (String alias : info.getAliases()) {
-                sb.append('|').append(alias);
-            }
-            for (Parameter parameter : method.getParameters()) {
-                var arg = parameter.getAnnotation(Arg.class);
-                var defaultAnnotation = parameter.getAnnotation(Default.class);
-                sb.append(' ').append(defaultAnnotation != null ? '[' : '<');
-                sb.append(arg != null ? arg.id() : parameter.getName());
-                sb.append(defaultAnnotation != null ? ']' : '>');
-            }
-            setUsage(sb.toString());
-        }
+        // subcommands may still be registered, so the usage is generated from the tree when asked
+        this.generatedUsage = info.getUsage().isEmpty() || "/".equals(info.getUsage());
     }
 
-
+    @Override
+    public @NotNull String getUsage() {
+        return generatedUsage ? node.getUsage() : super.getUsage();
+    }
 
     @Override
     public boolean execute(CommandSender sender, String commandLabel, String @NotNull [] args) {
-        SpigotCommandActor defaultSender = SpigotCommandActor.wrap(sender, manager);
+        SpigotCommandActor defaultSender = manager.getActor(sender);
+        // bukkit split the line on every space, joining it back gives the line as it was typed
+        CommandLine line = CommandLine.tokenize(String.join(" ", args));
+        CommandNode target = node.walk(line);
+        ICommand command = target.getCommand();
 
         try {
-            this.executeCommand(method, defaultSender, sender, args);
+            if (command == null) throw new InvalidUsageException();
+            command.execute(defaultSender, line, target.getDepth() - node.getDepth());
         } catch (final ArgumentParseException | IllegalArgumentException |
-                       CooldownActiveException | NotInRangeException e) {
+                       CooldownActiveException e) {
             defaultSender.reply(ChatColor.RED + e.getMessage());
             return true;
-        } catch (final NegativeArraySizeException | ArrayIndexOutOfBoundsException e) {
-            defaultSender.reply(ChatColor.RED + "Usage: " + getUsage());
+        } catch (final InvalidUsageException e) {
+            defaultSender.reply(ChatColor.RED + "Usage: " + (target == node ? getUsage() : target.getUsage()));
             return false;
         }
 
@@ -92,50 +79,50 @@ public final class CommandWrapper extends Command implements PluginIdentifiableC
 
     @Override
     @Contract(pure = true)
-    public @NotNull @Unmodifiable List<String> tabComplete(@NotNull CommandSender sender, @NotNull String alias, @NotNull String[] args) {
-        return manager.getSuggestionRegistry().complete(method, (clazz, list) -> {
-            if (clazz.isAssignableFrom(Player.class)) {
-                List<String> offlinePlayers = new ArrayList<>(500);
-                for (var player : Bukkit.getOnlinePlayers())
-                    offlinePlayers.add(player.getName());
-                list.addAll(offlinePlayers);
+    public @NotNull List<String> tabComplete(@NotNull CommandSender sender, @NotNull String alias, @NotNull String[] args) {
+        if (args.length == 0) return List.of();
+        // tokenized like the line is when it is executed, so both agree on which argument is where
+        return complete(CommandLine.tokenize(String.join(" ", args)));
+    }
+
+    /**
+     * Completes the token under the cursor.
+     * @param line the line after the label, as it is being typed
+     * @return the completions
+     */
+    @NotNull List<String> complete(@NotNull CommandLine line) {
+        int cursor = line.getCursorIndex();
+        CommandNode target = node.walk(line, cursor);
+        String current = cursor < line.size() ? line.get(cursor).toString() : "";
+        ArgumentSuggestionRegistry registry = manager.getSuggestionRegistry();
+        Completions completions = new Completions(current, registry.getMaxSuggestions());
+        for (CommandNode child : target.getChildren()) {
+            if (!completions.offer(child.getName())) return completions.getList();
+        }
+
+        ICommand command = target.getCommand();
+        if (command == null) return completions.getList();
+        // the literals walked to the subcommand are not arguments of it
+        int argument = cursor - (target.getDepth() - node.getDepth());
+        registry.complete(command.getPlan(), argument, completions, (clazz, list) -> {
+            // exact types, a Player is an OfflinePlayer too
+            if (clazz == Player.class) {
+                manager.getPlayerNameIndex().complete(list);
                 return true;
-            } else if (clazz.isAssignableFrom(OfflinePlayer.class)) {
-                List<String> offlinePlayers = new ArrayList<>(5000);
-                for (var player : Bukkit.getOfflinePlayers())
-                    offlinePlayers.add(player.getName());
-                list.addAll(offlinePlayers);
+            } else if (clazz == OfflinePlayer.class) {
+                manager.getOfflinePlayerNames().complete(list);
                 return true;
             } else if (clazz.isAssignableFrom(World.class)) {
-                list.addAll(Bukkit.getWorlds().stream().map(World::getName).collect(Collectors.toList()));
+                manager.getWorldNames().complete(list);
                 return true;
             }
             return false;
         });
+        return completions.getList();
     }
 
     @Override
     public Plugin getPlugin() {
         return manager.getPlugin();
     }
-
-    private void executeCommand(Method m, SpigotCommandActor defaultSender, CommandSender sender, String @NotNull [] args)
-            throws ArgumentParseException, CooldownActiveException, NotInRangeException {
-        this.command.execute(m, defaultSender, args, (type) -> {
-            if (type.isAssignableFrom(CommandSender.class)) {
-                manager.invoke(m, object, sender, args);
-                return true;
-            }
-            return false;
-        }, (type, moreArgs, actor) -> {
-            // todo: switch to hashmap for better performance and extensibility
-
-            if (type == CommandSender.class) {
-                return false;
-            } else if (type == Player.class && defaultSender.getPlayer() == null) {
-                return true;
-            }
-            return (type == ConsoleCommandSender.class && defaultSender.getConsole() == null);
-        });
-    }
 }
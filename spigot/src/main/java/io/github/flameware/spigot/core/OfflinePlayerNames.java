@@ -0,0 +1,85 @@
+package io.github.flameware.spigot.core;
+
+import io.github.flameware.common.base.arguments.Completions;
+import io.github.flameware.common.utils.SuggestionIndex;
+
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.plugin.Plugin;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The names of every player who ever joined, for completing offline players.
+ * <p>
+ * {@link Bukkit#getOfflinePlayers()} reads the data of every player, so it is only called once, asynchronously,
+ * and the names of new players are added as they join.
+ * <p>
+ * The names are published as an immutable {@link SuggestionIndex}, so completing never locks nor touches the server.
+ * @author FlameyosFlow
+ */
+public final class OfflinePlayerNames {
+    private final Plugin plugin;
+    private volatile SuggestionIndex names = SuggestionIndex.empty();
+    private volatile int limit = 50;
+
+    OfflinePlayerNames(@NotNull Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Loads the names asynchronously, the players joining meanwhile are kept.
+     */
+    public void refresh() {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            OfflinePlayer[] players = Bukkit.getOfflinePlayers();
+            List<String> loaded = new ArrayList<>(players.length);
+            for (OfflinePlayer player : players) {
+                String name = player.getName();
+                if (name != null) loaded.add(name);
+            }
+
+            SuggestionIndex index = SuggestionIndex.of(loaded);
+            synchronized (this) {
+                for (String name : names.getValues()) {
+                    if (!index.contains(name)) index = index.with(name);
+                }
+                names = index;
+            }
+        });
+    }
+
+    synchronized void add(@NotNull String name) {
+        SuggestionIndex names = this.names;
+        if (!names.contains(name)) this.names = names.with(name);
+    }
+
+    /**
+     * Suggests the names which start with what is being typed, at most {@link #getLimit()} of them.
+     * @param completions the completions
+     * @return false once the maximum amount of suggestions is reached
+     */
+    public boolean complete(@NotNull Completions completions) {
+        return completions.offer(names, limit);
+    }
+
+    /**
+     * Gets the maximum amount of names suggested at once.
+     * @return the maximum, 50 by default
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        if (limit < 0) throw new IllegalArgumentException("The limit cannot be negative");
+        this.limit = limit;
+    }
+
+    public int size() {
+        return names.size();
+    }
+}
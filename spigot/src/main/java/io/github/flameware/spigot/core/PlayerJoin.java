@@ -0,0 +1,20 @@
+package io.github.flameware.spigot.core;
+
+import lombok.Data;
+import org.bukkit.event.EventHandler;
+
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.jetbrains.annotations.NotNull;
+
+@Data
+class PlayerJoin implements Listener {
+    private final SpigotCommandManager manager;
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(@NotNull PlayerJoinEvent event) {
+        manager.getPlayerNameIndex().add(event.getPlayer());
+        manager.getOfflinePlayerNames().add(event.getPlayer().getName());
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.flameware.spigot.core;
+
+import io.github.flameware.common.base.arguments.Completions;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The names of the online players sorted case-insensitively, kept up to date on join and quit.
+ * <p>
+ * Completing a name is a range query costing O(log n + k) and parsing one is a lookup costing O(log n),
+ * instead of going through every online player on each keystroke.
+ * <p>
+ * It is safe to read from any thread, so completing asynchronously does not touch the player list of the server.
+ * @author FlameyosFlow
+ */
+public final class PlayerNameIndex {
+    private final ConcurrentNavigableMap<String, Player> players = new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    PlayerNameIndex() {
+        // players who were already online, when the plugin is enabled late or reloaded
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            add(player);
+        }
+    }
+
+    void add(@NotNull Player player) {
+        players.put(player.getName(), player);
+    }
+
+    void remove(@NotNull Player player) {
+        players.remove(player.getName(), player);
+    }
+
+    /**
+     * Gets the online player with the name, ignoring case.
+     * @param name the name
+     * @return the player, or null if nobody with that name is online
+     */
+    public @Nullable Player getPlayer(@NotNull String name) {
+        return players.get(name);
+    }
+
+    /**
+     * Suggests the names of the online players which start with what is being typed.
+     * @param completions the completions
+     * @return false once the maximum amount of suggestions is reached
+     */
+    public boolean complete(@NotNull Completions completions) {
+        String prefix = completions.getPrefix();
+        ConcurrentNavigableMap<String, Player> range = prefix.isEmpty()
+                ? players
+                : players.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+        for (String name : range.keySet()) {
+            if (!completions.offer(name)) return false;
+        }
+        return !completions.isFull();
+    }
+
+    public int size() {
+        return players.size();
+    }
+}
@@ -1,9 +1,9 @@
 package io.github.flameware.spigot.core;
 
-import io.github.flameware.common.base.command.ICommand;
 import lombok.Data;
 import org.bukkit.event.EventHandler;
 
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.jetbrains.annotations.NotNull;
@@ -12,13 +12,10 @@ import org.jetbrains.annotations.NotNull;
 class PlayerQuit implements Listener {
     private final SpigotCommandManager manager;
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR)
     public void onQuit(@NotNull PlayerQuitEvent event) {
-        String uuid = event.getPlayer().getName();
-        for (ICommand wrapper : manager.getCommands().values()) {
-            String name = wrapper.getName();
-            if (!manager.isCooldownActive(uuid, name)) continue;
-            manager.removeCooldown(uuid, name);
-        }
+        manager.getCooldownStore().onQuit(event.getPlayer().getUniqueId());
+        manager.getPlayerNameIndex().remove(event.getPlayer());
+        manager.removeActor(event.getPlayer().getUniqueId());
     }
 }
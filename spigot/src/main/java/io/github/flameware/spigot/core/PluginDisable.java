@@ -0,0 +1,20 @@
+package io.github.flameware.spigot.core;
+
+import lombok.Data;
+import org.bukkit.event.EventHandler;
+
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.jetbrains.annotations.NotNull;
+
+@Data
+class PluginDisable implements Listener {
+    private final SpigotCommandManager manager;
+
+    @EventHandler
+    public void onDisable(@NotNull PluginDisableEvent event) {
+        if (event.getPlugin() != manager.getPlugin()) return;
+        manager.close();
+        manager.closeAudiences();
+    }
+}
@@ -1 +1 @@
-package io.github.flameware.spigot.core;import com.google.errorprone.annotations.CanIgnoreReturnValue;import io.github.flameware.common.CommandExecutionType;import io.github.flameware.common.base.manager.AbstractCommandManager;import io.github.flameware.common.annotations.Command;import io.github.flameware.common.annotations.Subcommand;import io.github.flameware.common.base.command.CommandImpl;import io.github.flameware.common.base.command.CommandInfo;import io.github.flameware.common.base.command.ICommand;import io.github.flameware.common.utils.TiConsumer;import lombok.Getter;import lombok.NonNull;import org.bukkit.*;import org.bukkit.command.SimpleCommandMap;import org.bukkit.enchantments.Enchantment;import org.bukkit.entity.Player;import org.bukkit.inventory.ItemStack;import org.bukkit.plugin.Plugin;import org.jetbrains.annotations.Contract;import org.jetbrains.annotations.NotNull;import org.jetbrains.annotations.Nullable;import java.lang.reflect.Field;import java.lang.reflect.Method;import java.util.*;import java.util.function.Supplier;/** * The command manager for spigot commands. * <p> * it is highly suggested to use this for spigot and (as of now) paper. * <p> * <strong>TODO:</strong> add implementation for paper to use async tab completion and more performance/quality-of-life features. * @author FlameyosFlow */@SuppressWarnings({ "deprecation", "unused", "DataFlowIssue" })public final class SpigotCommandManager extends AbstractCommandManager<Plugin> {    @Getter    private final SimpleCommandMap commandMap;    private final TiConsumer<Method, Command, Object> wrapperCommandFunction;    private SpigotCommandManager(Plugin plugin) {        this(plugin, CommandExecutionType.SYNC);    }    private SpigotCommandManager(Plugin plugin, CommandExecutionType type) {        super(plugin, type);        this.commandMap = ((Supplier<SimpleCommandMap>) () -> {            try {                Field mapField = Bukkit.getServer().getClass().getDeclaredField("commandMap");                mapField.setAccessible(true);                return (SimpleCommandMap) mapField.get(Bukkit.getServer());            } catch (NoSuchFieldException | IllegalAccessException e) {                throw new RuntimeException(e.getMessage());            }        }).get();        this.wrapperCommandFunction = (m, commandClassAnnotation, object) -> {            Class<?> commandClass = object.getClass();            Subcommand subcommand = m.getAnnotation(Subcommand.class);            Command command = m.getAnnotation(Command.class);            if (m.isAnnotationPresent(Subcommand.class) && m.isAnnotationPresent(Command.class)){                throw new IllegalCallerException("You cannot have both @Subcommand and @Command on a method/class at class " + commandClass.getSimpleName());            }            if (subcommand != null) {                CommandInfo info = new CommandInfo(subcommand.name(), subcommand.desc(),                        subcommand.perm(), subcommand.usage(), subcommand.aliases());                CommandImpl commandImpl = new CommandImpl(this, info, object);                commands.put(subcommand.name(), commandImpl);            } else if (command != null) {                CommandInfo info = new CommandInfo(commandClassAnnotation.name(), commandClassAnnotation.desc(),                        commandClassAnnotation.perm(), commandClassAnnotation.usage(), commandClassAnnotation.aliases());                ICommand wrapper = ICommand.wrap(info, this, object);                commands.put(commandClassAnnotation.name(), wrapper);                commandMap.register(plugin.getName(), new CommandWrapper(info, this, wrapper, object, m));            }        };        // Add spigot arguments for parsing strings to spigot references        argumentHandler.addParserIfAbsent(Map.of(                Player.class, Bukkit::getPlayerExact,                OfflinePlayer.class, Bukkit::getOfflinePlayer,                Material.class, Material::getMaterial,                Enchantment.class, Enchantment::getByName,                World.class, Bukkit::getWorld,                ItemStack.class, string -> new ItemStack(Material.getMaterial(string))        ));    }    /**     * Returns a new instance of SpigotCommandManager.     * @param plugin The plugin for the command framework.     * @return a new instance of SpigotCommandManager.     */    @Contract("_ -> new")    public static @NotNull SpigotCommandManager create(@NonNull Plugin plugin) {        SpigotCommandManager manager = new SpigotCommandManager(plugin);        Bukkit.getPluginManager().registerEvents(new PlayerQuit(manager), plugin);        return manager;    }    /**     * Returns a new instance of SpigotCommandManager.     * @param plugin The plugin for the command framework.     * @param type The execution type, SYNC or ASYNC     * @return a new instance of SpigotCommandManager.     */    @Contract("_, _ -> new")    public static @NotNull SpigotCommandManager create(@NonNull Plugin plugin, @NonNull CommandExecutionType type) {        SpigotCommandManager manager = new SpigotCommandManager(plugin, type);        Bukkit.getPluginManager().registerEvents(new PlayerQuit(manager), plugin);        return manager;    }        /**     * Registers a single command at once.     * @param object The command class.     */    @Override    @CanIgnoreReturnValue    public <C> void register(@NonNull C object) {        Class<?> commandClass = object.getClass();        Command commandClassAnnotation = commandClass.getAnnotation(Command.class);        if (commandClass.isAnnotationPresent(Command.class) && commandClass.isAnnotationPresent(Subcommand.class)) {            throw new IllegalStateException("You cannot have both @Command and @Subcommand on a method/class");        }        if ("<CLASS_COMMAND_DEFAULT>".equalsIgnoreCase(commandClassAnnotation.name())) {            throw new IllegalStateException("@Command annotated the class with name <CLASS_COMMAND_DEFAULT> at class " + commandClass.getSimpleName());        }        for (Method m : commandClass.getMethods()) {            wrapperCommandFunction.accept(m, commandClassAnnotation, object);        }    }    /**     * Register multiple commands, better for readability.     * <p>     * This is null safe, it will silently ignore null commands which is good for in-method null checks and ternary operators.     *     * @param commands The commands to register, may be null     */     @Override     @SafeVarargs     @CanIgnoreReturnValue     public final <C> void register(C @Nullable ... commands) {         for (C command : commands) {             if (command == null) continue;             this.register(command);         }     }     public void enableAdventure() {         // TODO: implement when sender resolvers exist.     }}
\ No newline at end of file
+package io.github.flameware.spigot.core;import com.google.errorprone.annotations.CanIgnoreReturnValue;import io.github.flameware.common.CommandExecutionType;import io.github.flameware.common.base.manager.AbstractCommandManager;import io.github.flameware.common.annotations.Command;import io.github.flameware.common.annotations.Subcommand;import io.github.flameware.common.base.command.CommandInfo;import io.github.flameware.common.base.command.CommandNode;import io.github.flameware.common.base.command.CommandRegistrar;import io.github.flameware.common.base.command.ExecutionPlan;import io.github.flameware.common.sender.CommandActor;import io.github.flameware.common.utils.TiConsumer;import io.github.flameware.spigot.sender.SpigotActor;import io.github.flameware.spigot.sender.SpigotCommandActor;import lombok.Getter;import lombok.NonNull;import net.kyori.adventure.audience.Audience;import net.kyori.adventure.platform.bukkit.BukkitAudiences;import org.bukkit.*;import org.bukkit.command.CommandSender;import org.bukkit.command.ConsoleCommandSender;import org.bukkit.command.SimpleCommandMap;import org.bukkit.enchantments.Enchantment;import org.bukkit.entity.Player;import org.bukkit.inventory.ItemStack;import org.bukkit.plugin.Plugin;import org.jetbrains.annotations.Contract;import org.jetbrains.annotations.NotNull;import org.jetbrains.annotations.Nullable;import java.lang.reflect.Field;import java.lang.reflect.Method;import java.util.*;import java.util.concurrent.ConcurrentHashMap;import java.util.function.Supplier;/** * The command manager for spigot commands. * <p> * it is highly suggested to use this for spigot and (as of now) paper. * <p> * On paper, tab completion of the arguments runs asynchronously, see {@link AsyncTabComplete}. * @author FlameyosFlow */@SuppressWarnings({ "deprecation", "unused", "DataFlowIssue" })public final class SpigotCommandManager extends AbstractCommandManager<Plugin> {    @Getter    private final SimpleCommandMap commandMap;    private final TiConsumer<Method, Command, Object> wrapperCommandFunction;    private final Set<CommandNode> registeredRoots = ConcurrentHashMap.newKeySet();    /**     * The registered commands by every label resolving to them, including the ones prefixed by the plugin name.     */    private final Map<String, CommandWrapper> wrappers = new ConcurrentHashMap<>();    /**     * Whether tab completion runs asynchronously, which is the case on paper.     */    @Getter    private boolean asyncTabCompletion;    /**     * The online players by name, used to complete and parse player arguments.     */    @Getter    private final PlayerNameIndex playerNameIndex = new PlayerNameIndex();    /**     * The names of the loaded worlds, used to complete world arguments.     */    @Getter    private final WorldNames worldNames = new WorldNames();    /**     * The names of every player who ever joined, used to complete offline player arguments.     */    @Getter    private final OfflinePlayerNames offlinePlayerNames;    /**     * The actors of the online players, reused by every command they run until they quit.     */    private final Map<UUID, SpigotActor> actors = new ConcurrentHashMap<>();    private volatile SpigotActor consoleActor;    /**     * The adventure platform of the plugin, created with the first component sent and closed when the plugin disables.     */    private volatile BukkitAudiences audiences;    private SpigotCommandManager(Plugin plugin) {        this(plugin, CommandExecutionType.SYNC);    }    private SpigotCommandManager(Plugin plugin, CommandExecutionType type) {        super(plugin, type);        this.offlinePlayerNames = new OfflinePlayerNames(plugin);        setMainThreadExecutor(new BukkitMainThreadExecutor(plugin));        this.commandMap = ((Supplier<SimpleCommandMap>) () -> {            try {                Field mapField = Bukkit.getServer().getClass().getDeclaredField("commandMap");                mapField.setAccessible(true);                return (SimpleCommandMap) mapField.get(Bukkit.getServer());            } catch (NoSuchFieldException | IllegalAccessException e) {                throw new RuntimeException(e.getMessage());            }        }).get();        this.wrapperCommandFunction = (m, commandClassAnnotation, object) -> {            Class<?> commandClass = object.getClass();            Subcommand subcommand = m.getAnnotation(Subcommand.class);            Command command = m.getAnnotation(Command.class);            if (m.isAnnotationPresent(Subcommand.class) && m.isAnnotationPresent(Command.class)){                throw new IllegalCallerException("You cannot have both @Subcommand and @Command on a method/class at class " + commandClass.getSimpleName());            }            if (subcommand == null && command == null) return;            CommandInfo root = new CommandInfo(commandClassAnnotation.name(), commandClassAnnotation.desc(),                    commandClassAnnotation.perm(), commandClassAnnotation.usage(), commandClassAnnotation.aliases());            if (subcommand != null) {                registerPlan(root, new CommandInfo(subcommand.name(), subcommand.desc(),                        subcommand.perm(), subcommand.usage(), subcommand.aliases()), compile(m, object));            } else {                registerPlan(root, root, compile(m, object));            }        };        // Add spigot arguments for parsing strings to spigot references, enums such as Material are parsed automatically        argumentHandler.addParserIfAbsent(Map.of(                Player.class, playerNameIndex::getPlayer,                OfflinePlayer.class, Bukkit::getOfflinePlayer,                Enchantment.class, Enchantment::getByName,                World.class, Bukkit::getWorld,                ItemStack.class, string -> new ItemStack(Material.getMaterial(string))        ));        // Resolve the first parameter of command methods from the actor        registerSenderResolver(CommandSender.class, CommandActor::getSender);        registerSenderResolver(Player.class, actor -> actor.getSender() instanceof Player ? actor.getSender() : null);        registerSenderResolver(ConsoleCommandSender.class, actor -> actor.getSender() instanceof ConsoleCommandSender ? actor.getSender() : null);    }    /**     * Returns a new instance of SpigotCommandManager.     * @param plugin The plugin for the command framework.     * @return a new instance of SpigotCommandManager.     */    @Contract("_ -> new")    public static @NotNull SpigotCommandManager create(@NonNull Plugin plugin) {        SpigotCommandManager manager = new SpigotCommandManager(plugin);        Bukkit.getPluginManager().registerEvents(new PlayerJoin(manager), plugin);        Bukkit.getPluginManager().registerEvents(new PlayerQuit(manager), plugin);        Bukkit.getPluginManager().registerEvents(new PluginDisable(manager), plugin);        Bukkit.getPluginManager().registerEvents(new WorldLoad(manager), plugin);        Bukkit.getPluginManager().registerEvents(new WorldUnload(manager), plugin);        manager.offlinePlayerNames.refresh();        manager.asyncTabCompletion = AsyncTabComplete.register(manager);        return manager;    }    /**     * Returns a new instance of SpigotCommandManager.     * @param plugin The plugin for the command framework.     * @param type The execution type, SYNC, ASYNC or VIRTUAL     * @return a new instance of SpigotCommandManager.     */    @Contract("_, _ -> new")    public static @NotNull SpigotCommandManager create(@NonNull Plugin plugin, @NonNull CommandExecutionType type) {        SpigotCommandManager manager = new SpigotCommandManager(plugin, type);        Bukkit.getPluginManager().registerEvents(new PlayerJoin(manager), plugin);        Bukkit.getPluginManager().registerEvents(new PlayerQuit(manager), plugin);        Bukkit.getPluginManager().registerEvents(new PluginDisable(manager), plugin);        Bukkit.getPluginManager().registerEvents(new WorldLoad(manager), plugin);        Bukkit.getPluginManager().registerEvents(new WorldUnload(manager), plugin);        manager.offlinePlayerNames.refresh();        manager.asyncTabCompletion = AsyncTabComplete.register(manager);        return manager;    }        /**     * Registers a single command at once.     * @param object The command class.     */    @Override    @CanIgnoreReturnValue    @SuppressWarnings("unchecked")    public <C> void register(@NonNull C object) {        Class<?> commandClass = object.getClass();        CommandRegistrar<C> registrar = CommandRegistrar.find((Class<C>) commandClass);        if (registrar != null) {            // generated at compile time, no reflection needed            registrar.register(this, object, this::registerPlan);            return;        }        Command commandClassAnnotation = commandClass.getAnnotation(Command.class);        if (commandClass.isAnnotationPresent(Command.class) && commandClass.isAnnotationPresent(Subcommand.class)) {            throw new IllegalStateException("You cannot have both @Command and @Subcommand on a method/class");        }        if ("<CLASS_COMMAND_DEFAULT>".equalsIgnoreCase(commandClassAnnotation.name())) {            throw new IllegalStateException("@Command annotated the class with name <CLASS_COMMAND_DEFAULT> at class " + commandClass.getSimpleName());        }        for (Method m : commandClass.getMethods()) {            wrapperCommandFunction.accept(m, commandClassAnnotation, object);        }    }    private void registerPlan(@NotNull CommandInfo root, @NotNull CommandInfo info, @NotNull ExecutionPlan plan) {        CommandNode rootNode = addToTree(root, info, plan);        // one bukkit command per root literal, the subcommands are dispatched by the tree        if (!registeredRoots.add(rootNode)) return;        CommandWrapper wrapper = new CommandWrapper(root, this, rootNode);        String prefix = plugin.getName().toLowerCase(Locale.ENGLISH).trim();        commandMap.register(prefix, wrapper);        // only the labels which the command map resolved to this command, another plugin may own an alias        List<String> labels = new ArrayList<>(wrapper.getAliases());        labels.add(wrapper.getName());        for (String label : labels) {            label = label.toLowerCase(Locale.ENGLISH);            for (String name : new String[] { label, prefix + ':' + label }) {                if (commandMap.getCommand(name) == wrapper) wrappers.put(name, wrapper);            }        }    }    @Nullable CommandWrapper getCommandWrapper(@NotNull String label) {        return wrappers.get(label.toLowerCase(Locale.ENGLISH));    }    /**     * Gets the actor of the sender, players and the console keep the same actor so running a command allocates none.     * @param sender the sender     * @return the actor     */    public @NotNull SpigotCommandActor getActor(@NotNull CommandSender sender) {        if (sender instanceof Player) {            UUID uniqueId = ((Player) sender).getUniqueId();            SpigotActor actor = actors.get(uniqueId);            if (actor == null || actor.getSender() != sender) {                actor = SpigotCommandActor.wrap(sender, this);                actors.put(uniqueId, actor);            }            return actor;        }        if (sender instanceof ConsoleCommandSender) {            SpigotActor actor = consoleActor;            if (actor == null || actor.getSender() != sender) consoleActor = actor = SpigotCommandActor.wrap(sender, this);            return actor;        }        // command blocks and entities are short-lived        return SpigotCommandActor.wrap(sender, this);    }    void removeActor(@NotNull UUID uniqueId) {        actors.remove(uniqueId);    }    /**     * Gets the adventure platform shared by every actor, which is created once and closed when the plugin disables.     * @return the audiences of the plugin     */    public @NotNull BukkitAudiences getAudiences() {        BukkitAudiences audiences = this.audiences;        if (audiences != null) return audiences;        synchronized (this) {            if (this.audiences == null) this.audiences = BukkitAudiences.create(plugin);            return this.audiences;        }    }    synchronized void closeAudiences() {        if (audiences == null) return;        audiences.close();        audiences = null;        // the actors keep the audience of the closed platform        actors.clear();        consoleActor = null;    }    /**     * Register multiple commands, better for readability.     * <p>     * This is null safe, it will silently ignore null commands which is good for in-method null checks and ternary operators.     *     * @param commands The commands to register, may be null     */     @Override     @SafeVarargs     @CanIgnoreReturnValue     public final <C> void register(C @Nullable ... commands) {         for (C command : commands) {             if (command == null) continue;             this.register(command);         }     }    /**     * Lets command methods take an adventure {@link Audience} as their sender, which is the audience of the actor.     * <p>     * Sender resolvers are looked up when a command is registered, so this must be called before registering the commands using it.     */    public void enableAdventure() {        registerSenderResolver(Audience.class, actor -> actor instanceof SpigotCommandActor ? ((SpigotCommandActor) actor).audience() : null);    }}
\ No newline at end of file
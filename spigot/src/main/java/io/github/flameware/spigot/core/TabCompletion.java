@@ -0,0 +1,31 @@
+package io.github.flameware.spigot.core;
+
+import org.bukkit.command.CommandSender;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * A tab completion requested before the server splits the line, such as Paper's {@code AsyncTabCompleteEvent}.
+ * <p>
+ * This only exposes what {@link AsyncTabComplete} needs, so it can be answered without depending on Paper.
+ * @author FlameyosFlow
+ */
+public interface TabCompletion {
+    @NotNull CommandSender getSender();
+
+    /**
+     * Gets the whole line being completed.
+     * @return the line, starting with a slash for players
+     */
+    @NotNull String getBuffer();
+
+    boolean isCommand();
+
+    boolean isHandled();
+
+    void setHandled(boolean handled);
+
+    void setCompletions(@NotNull List<String> completions);
+}
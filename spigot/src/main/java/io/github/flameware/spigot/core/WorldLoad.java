@@ -0,0 +1,19 @@
+package io.github.flameware.spigot.core;
+
+import lombok.Data;
+import org.bukkit.event.EventHandler;
+
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.jetbrains.annotations.NotNull;
+
+@Data
+class WorldLoad implements Listener {
+    private final SpigotCommandManager manager;
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onLoad(@NotNull WorldLoadEvent event) {
+        manager.getWorldNames().add(event.getWorld());
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.flameware.spigot.core;
+
+import io.github.flameware.common.base.arguments.Completions;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * The names of the loaded worlds sorted case-insensitively, kept up to date when worlds are loaded and unloaded.
+ * <p>
+ * It is safe to read from any thread, so completing asynchronously does not touch the world list of the server.
+ * @author FlameyosFlow
+ */
+public final class WorldNames {
+    private final ConcurrentSkipListSet<String> names = new ConcurrentSkipListSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    WorldNames() {
+        // worlds which were already loaded, like the default ones
+        for (World world : Bukkit.getWorlds()) {
+            add(world);
+        }
+    }
+
+    void add(@NotNull World world) {
+        names.add(world.getName());
+    }
+
+    void remove(@NotNull World world) {
+        names.remove(world.getName());
+    }
+
+    /**
+     * Suggests the names of the loaded worlds which start with what is being typed.
+     * @param completions the completions
+     * @return false once the maximum amount of suggestions is reached
+     */
+    public boolean complete(@NotNull Completions completions) {
+        String prefix = completions.getPrefix();
+        NavigableSet<String> range = prefix.isEmpty()
+                ? names
+                : names.subSet(prefix, true, prefix + Character.MAX_VALUE, true);
+        for (String name : range) {
+            if (!completions.offer(name)) return false;
+        }
+        return !completions.isFull();
+    }
+
+    public int size() {
+        return names.size();
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.flameware.spigot.core;
+
+import lombok.Data;
+import org.bukkit.event.EventHandler;
+
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.jetbrains.annotations.NotNull;
+
+@Data
+class WorldUnload implements Listener {
+    private final SpigotCommandManager manager;
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onUnload(@NotNull WorldUnloadEvent event) {
+        manager.getWorldNames().remove(event.getWorld());
+    }
+}
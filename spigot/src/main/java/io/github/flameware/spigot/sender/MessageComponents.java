@@ -0,0 +1,45 @@
+package io.github.flameware.spigot.sender;
+
+import io.github.flameware.common.base.manager.Message;
+import io.github.flameware.common.base.manager.MessageTemplate;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The {@link Message messages} as KyoriPowered Adventure API components, to send them with {@link SpigotCommandActor#reply(Object)}.
+ * <p>
+ * The component of a message without placeholders is deserialized once, until the message is changed.
+ * @author FlameyosFlow
+ */
+public final class MessageComponents {
+    private MessageComponents() {
+    }
+
+    /**
+     * Gets the message as a component, placeholders are left as they are.
+     * @param message the message
+     * @return the component
+     */
+    public static @NotNull Component of(@NotNull Message message) {
+        return message.getTemplate().getPlatformForm(MessageComponents::deserialize);
+    }
+
+    /**
+     * Renders the message as a component.
+     * @param message the message
+     * @param values appends the value of every placeholder
+     * @return the component
+     */
+    public static @NotNull Component render(@NotNull Message message, @NotNull MessageTemplate.Placeholders values) {
+        MessageTemplate template = message.getTemplate();
+        if (template.isConstant()) return template.getPlatformForm(MessageComponents::deserialize);
+        return LegacyComponentSerializer.legacyAmpersand().deserialize(template.render(values));
+    }
+
+    private static Component deserialize(MessageTemplate template) {
+        return LegacyComponentSerializer.legacyAmpersand().deserialize(template.getText());
+    }
+}
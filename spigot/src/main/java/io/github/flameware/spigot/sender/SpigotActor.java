@@ -2,25 +2,32 @@ package io.github.flameware.spigot.sender;
 
 import io.github.flameware.spigot.core.SpigotCommandManager;
 
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import net.kyori.adventure.audience.Audience;
-import net.kyori.adventure.platform.bukkit.BukkitAudiences;
 import net.kyori.adventure.text.ComponentLike;
 
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
 @ApiStatus.Internal
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class SpigotActor implements SpigotCommandActor {
     private final CommandSender sender;
     private final SpigotCommandManager manager;
+    /**
+     * Created with the first component sent, read from the threads of asynchronous commands too.
+     */
+    private volatile Audience audience;
 
     @Override
     public void reply(String message) {
@@ -42,6 +49,14 @@ public class SpigotActor implements SpigotCommandActor {
         return sender.getName();
     }
 
+    @Override
+    public UUID getUniqueId() {
+        if (sender instanceof Entity) {
+            return ((Entity) sender).getUniqueId();
+        }
+        return UUID.nameUUIDFromBytes(("FlameWare:" + sender.getName()).getBytes(StandardCharsets.UTF_8));
+    }
+
     @Override
     public CommandSender getSender() {
         return sender;
@@ -54,14 +69,12 @@ public class SpigotActor implements SpigotCommandActor {
 
     @Override
     public Audience audience() {
-        if (Audience.class.isAssignableFrom(getSenderClass())) {
-            // Paper
-            return (Audience) sender;
-        }
-
-        try (BukkitAudiences audiences = BukkitAudiences.create(manager.getPlugin())) {
-            return audiences.sender(sender);
-        }
+        Audience audience = this.audience;
+        if (audience != null) return audience;
+        // senders are audiences on paper, the shared platform of the manager is used otherwise
+        audience = sender instanceof Audience ? (Audience) sender : manager.getAudiences().sender(sender);
+        this.audience = audience;
+        return audience;
     }
 
     @Override
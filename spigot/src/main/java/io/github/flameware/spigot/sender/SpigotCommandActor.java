@@ -106,6 +106,7 @@ public interface SpigotCommandActor extends CommandActor<CommandSender> {
      * @param sender the CommandSender
      * @param manager the spigot command manager.
      * @return the SpigotActor.
+     * @see SpigotCommandManager#getActor(CommandSender)
      */
     @Contract("_, _ -> new")
     static @NotNull SpigotActor wrap(CommandSender sender, SpigotCommandManager manager) {